@@ -0,0 +1,400 @@
+package EDP;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Bulk account import from CSV. The file is read once, cut into chunks of records,
+// and the chunks are parsed and validated in parallel; accepted rows are written in
+// order as multi-row INSERTs, one DB transaction per batch. A batch the database
+// refuses (say, a duplicate accountID) is retried row by row so only the bad rows
+// are rejected. Rejected rows go to a CSV report with line number and reason.
+//
+// Header names the columns, in any order:
+//   customerID, accountID, firstName, middleName, lastName, birthDate (yyyy-MM-dd),
+//   street, barangay, municipality, provinceCity, zip, phone, email, gender,
+//   accountType (Savings Account | Checking Account), balance, is_active
+// customerID and accountID may be blank (allocated); is_active defaults to true.
+public class AccountImporter {
+    private static final String[] REQUIRED = { "firstName", "lastName", "birthDate", "phone", "accountType", "balance" };
+
+    private final int parallelism;
+    private final int chunkRecords;
+    private final int batchRows;
+
+    private long rowsRead = 0;
+    private long rowsImported = 0;
+    private long batchesCommitted = 0;
+    private final List<Rejected> rejected = new ArrayList<>();
+    private final List<CustomerAccount> pending = new ArrayList<>();
+    // Source line of each accepted row not yet committed, for reporting database rejections
+    private final Map<CustomerAccount, Rejected> sources = new HashMap<>();
+
+    public AccountImporter(int parallelism, int chunkRecords, int batchRows) {
+        this.parallelism = parallelism;
+        this.chunkRecords = chunkRecords;
+        this.batchRows = batchRows;
+    }
+
+    // Builds an importer from -Dbank.import.* system properties.
+    public static AccountImporter fromSystemProperties() {
+        return new AccountImporter(
+                Integer.getInteger("bank.import.parallelism", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("bank.import.chunkRecords", 2_000),
+                Integer.getInteger("bank.import.batchRows", 500));
+    }
+
+    public void importFile(Path csv, Path rejectsReport) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism);
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("Empty file: " + csv);
+            }
+            Map<String, Integer> header = parseHeader(headerLine);
+
+            // Bounded look-ahead keeps memory flat however large the file is
+            ArrayDeque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            int lineNumber = 1;
+            List<String> records = new ArrayList<>(chunkRecords);
+            List<Integer> lineNumbers = new ArrayList<>(chunkRecords);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int recordStart = lineNumber;
+                // A quoted field may span lines; keep reading until the quotes balance
+                StringBuilder record = new StringBuilder(line);
+                while (countQuotes(record) % 2 != 0 && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    record.append('\n').append(line);
+                }
+                if (record.length() == 0) {
+                    continue;
+                }
+                records.add(record.toString());
+                lineNumbers.add(recordStart);
+                if (records.size() == chunkRecords) {
+                    inFlight.add(submit(parsers, header, records, lineNumbers));
+                    records = new ArrayList<>(chunkRecords);
+                    lineNumbers = new ArrayList<>(chunkRecords);
+                    if (inFlight.size() >= parallelism * 2) {
+                        write(inFlight.poll());
+                    }
+                }
+            }
+            if (!records.isEmpty()) {
+                inFlight.add(submit(parsers, header, records, lineNumbers));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll());
+            }
+            flush();
+        } finally {
+            parsers.shutdown();
+        }
+
+        writeRejects(rejectsReport);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Imported %d of %d rows (%d rejected) in %d batches, %.1f s, %.0f rows/s%n",
+                          rowsImported, rowsRead, rejected.size(), batchesCommitted, seconds,
+                          seconds > 0 ? rowsImported / seconds : 0.0);
+        if (!rejected.isEmpty()) {
+            System.out.println("Rejected rows written to " + rejectsReport);
+        }
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public List<Rejected> getRejected() {
+        return rejected;
+    }
+
+    public static final class Rejected {
+        public final int lineNumber;
+        public final String reason;
+        public final String record;
+
+        Rejected(int lineNumber, String reason, String record) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.record = record;
+        }
+    }
+
+    private static final class ParsedChunk {
+        final List<CustomerAccount> accounts = new ArrayList<>();
+        final Map<CustomerAccount, Rejected> sources = new HashMap<>();
+        final List<Rejected> rejected = new ArrayList<>();
+    }
+
+    private Future<ParsedChunk> submit(ExecutorService parsers, Map<String, Integer> header,
+                                       List<String> records, List<Integer> lineNumbers) {
+        return parsers.submit(() -> {
+            ParsedChunk chunk = new ParsedChunk();
+            // SimpleDateFormat is not thread-safe, one per chunk
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+            dateFormat.setLenient(false);
+            for (int i = 0; i < records.size(); i++) {
+                String record = records.get(i);
+                try {
+                    CustomerAccount account = toAccount(header, parseRecord(record), dateFormat);
+                    chunk.accounts.add(account);
+                    chunk.sources.put(account, new Rejected(lineNumbers.get(i), null, record));
+                } catch (IllegalArgumentException e) {
+                    chunk.rejected.add(new Rejected(lineNumbers.get(i), e.getMessage(), record));
+                }
+            }
+            return chunk;
+        });
+    }
+
+    private void write(Future<ParsedChunk> future) {
+        ParsedChunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parser failed", e.getCause());
+        }
+        rowsRead += chunk.accounts.size() + chunk.rejected.size();
+        rejected.addAll(chunk.rejected);
+        sources.putAll(chunk.sources);
+        for (CustomerAccount account : chunk.accounts) {
+            pending.add(account);
+            if (pending.size() >= batchRows) {
+                flush();
+            }
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<CustomerAccount> batch = new ArrayList<>(pending);
+        pending.clear();
+        try {
+            insertBatch(batch);
+            rowsImported += batch.size();
+            batchesCommitted++;
+        } catch (SQLException e) {
+            // Find the offending rows one at a time; the rest still go in
+            for (CustomerAccount account : batch) {
+                try {
+                    insertBatch(List.of(account));
+                    rowsImported++;
+                } catch (SQLException rowError) {
+                    Rejected source = sources.get(account);
+                    rejected.add(new Rejected(source.lineNumber, "Database: " + rowError.getMessage(), source.record));
+                }
+            }
+        }
+        for (CustomerAccount account : batch) {
+            sources.remove(account);
+        }
+    }
+
+    private void insertBatch(List<CustomerAccount> batch) throws SQLException {
+        // Group by the tables each account type writes to in the current migration phase
+        Map<String, List<CustomerAccount>> byTable = new LinkedHashMap<>();
+        for (CustomerAccount account : batch) {
+            for (String table : AccountsMigration.writeTables(account.accountType)) {
+                byTable.computeIfAbsent(table, t -> new ArrayList<>()).add(account);
+            }
+        }
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<String, List<CustomerAccount>> entry : byTable.entrySet()) {
+                    DatabaseUtil.insertCustomerAccounts(conn, entry.getKey(), entry.getValue());
+                }
+                DashboardAggregates.recordAccountsCreated(conn, batch.size());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        DatabaseUtil.fireAccountsSaved(batch);
+    }
+
+    private static CustomerAccount toAccount(Map<String, Integer> header, List<String> fields, SimpleDateFormat dateFormat) {
+        String firstName = field(header, fields, "firstName");
+        String lastName = field(header, fields, "lastName");
+        if (!AccountValidation.hasRequiredNames(firstName, lastName)) {
+            throw new IllegalArgumentException("First Name and Last Name are required");
+        }
+        String phone = field(header, fields, "phone");
+        if (!AccountValidation.isValidPhone(phone)) {
+            throw new IllegalArgumentException("Invalid phone number (09XXXXXXXXX)");
+        }
+        String email = field(header, fields, "email");
+        if (!AccountValidation.isValidEmail(email)) {
+            throw new IllegalArgumentException("Invalid email format");
+        }
+        String accountType = normalizeType(field(header, fields, "accountType"));
+
+        Date birthDate;
+        try {
+            birthDate = dateFormat.parse(field(header, fields, "birthDate"));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid birthDate (yyyy-MM-dd)");
+        }
+        long balance;
+        try {
+            balance = Money.parse(field(header, fields, "balance"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid balance");
+        }
+        if (balance < 0) {
+            throw new IllegalArgumentException("Balance cannot be negative");
+        }
+        String active = field(header, fields, "is_active");
+
+        String customerID = field(header, fields, "customerID");
+        String accountID = field(header, fields, "accountID");
+        if (customerID.isEmpty()) {
+            customerID = DatabaseUtil.nextCustomerId();
+        }
+        if (accountID.isEmpty()) {
+            accountID = DatabaseUtil.nextAccountId();
+        }
+        if (customerID == null || accountID == null) {
+            throw new IllegalArgumentException("Could not allocate an ID");
+        }
+
+        return new CustomerAccount(customerID, accountID, firstName.trim(),
+                field(header, fields, "middleName"), lastName.trim(), birthDate,
+                field(header, fields, "street"), field(header, fields, "barangay"),
+                field(header, fields, "municipality"), field(header, fields, "provinceCity"),
+                field(header, fields, "zip"), phone, email, field(header, fields, "gender"),
+                accountType, balance,
+                active.isEmpty() || active.equalsIgnoreCase("true") || active.equals("1"));
+    }
+
+    private static String normalizeType(String type) {
+        String lower = type.toLowerCase(Locale.ROOT);
+        if (lower.equals("savings account") || lower.equals("savings")) {
+            return "Savings Account";
+        }
+        if (lower.equals("checking account") || lower.equals("checking")) {
+            return "Checking Account";
+        }
+        throw new IllegalArgumentException("Unknown accountType: " + type);
+    }
+
+    private static String field(Map<String, Integer> header, List<String> fields, String name) {
+        Integer index = header.get(name);
+        return index == null || index >= fields.size() ? "" : fields.get(index).trim();
+    }
+
+    private static Map<String, Integer> parseHeader(String line) throws IOException {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = parseRecord(line);
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim(), i);
+        }
+        for (String required : REQUIRED) {
+            if (!header.containsKey(required)) {
+                throw new IOException("Missing column: " + required);
+            }
+        }
+        return header;
+    }
+
+    // RFC 4180: commas separate, double quotes wrap, "" is a literal quote
+    static List<String> parseRecord(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    private void writeRejects(Path report) throws IOException {
+        if (rejected.isEmpty()) {
+            return;
+        }
+        rejected.sort((a, b) -> Integer.compare(a.lineNumber, b.lineNumber));
+        try (BufferedWriter out = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            out.write("line,reason,record");
+            out.newLine();
+            for (Rejected r : rejected) {
+                out.write(r.lineNumber + "," + quote(r.reason) + "," + quote(r.record));
+                out.newLine();
+            }
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    // Usage: AccountImporter accounts.csv [rejected.csv]
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: AccountImporter <accounts.csv> [rejected.csv]");
+            return;
+        }
+        Path csv = Paths.get(args[0]);
+        Path rejects = args.length > 1 ? Paths.get(args[1]) : Paths.get(args[0] + ".rejected.csv");
+        fromSystemProperties().importFile(csv, rejects);
+    }
+}
@@ -0,0 +1,23 @@
+package EDP;
+
+import java.util.List;
+
+// Notified by DatabaseUtil after an account change has been committed, so
+// in-memory views (registry, search index, dashboard totals) stay in step.
+public interface AccountListener {
+    default void accountSaved(CustomerAccount account) {
+    }
+
+    default void accountUpdated(CustomerAccount account) {
+    }
+
+    default void accountDisabled(String accountID) {
+    }
+
+    default void accountDeleted(String accountID) {
+    }
+
+    // accountIds.get(i) is the account of transactions.get(i)
+    default void transactionsPosted(List<String> accountIds, List<Transaction> transactions) {
+    }
+}
@@ -0,0 +1,126 @@
+package EDP;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Thread-safe in-memory accounts, indexed by accountID and by customerID.
+// A customer can own several accounts, so the customer index maps to a set of account IDs.
+public final class AccountRegistry implements Iterable<CustomerAccount>, AccountListener {
+    private final ConcurrentHashMap<String, CustomerAccount> byAccountId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> byCustomerId = new ConcurrentHashMap<>();
+
+    public AccountRegistry() {
+    }
+
+    public AccountRegistry(Collection<CustomerAccount> accounts) {
+        addAll(accounts);
+    }
+
+    public void put(CustomerAccount account) {
+        byAccountId.compute(account.accountID, (id, previous) -> {
+            if (previous != null && !previous.customerID.equals(account.customerID)) {
+                unlink(previous.customerID, id);
+            }
+            link(account.customerID, id);
+            return account;
+        });
+    }
+
+    public void addAll(Collection<CustomerAccount> accounts) {
+        for (CustomerAccount account : accounts) {
+            put(account);
+        }
+    }
+
+    public CustomerAccount remove(String accountID) {
+        CustomerAccount[] removed = new CustomerAccount[1];
+        byAccountId.computeIfPresent(accountID, (id, previous) -> {
+            unlink(previous.customerID, id);
+            removed[0] = previous;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public CustomerAccount getByAccountId(String accountID) {
+        return accountID == null ? null : byAccountId.get(accountID);
+    }
+
+    public List<CustomerAccount> getByCustomerId(String customerID) {
+        Set<String> ids = customerID == null ? null : byCustomerId.get(customerID);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<CustomerAccount> accounts = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            CustomerAccount account = byAccountId.get(id);
+            if (account != null) {
+                accounts.add(account);
+            }
+        }
+        return accounts;
+    }
+
+    public boolean containsAccountId(String accountID) {
+        return accountID != null && byAccountId.containsKey(accountID);
+    }
+
+    public boolean containsCustomerId(String customerID) {
+        return customerID != null && byCustomerId.containsKey(customerID);
+    }
+
+    public int size() {
+        return byAccountId.size();
+    }
+
+    // Weakly consistent: safe to iterate while other threads add or remove accounts
+    @Override
+    public Iterator<CustomerAccount> iterator() {
+        return byAccountId.values().iterator();
+    }
+
+    @Override
+    public void accountSaved(CustomerAccount account) {
+        put(account);
+    }
+
+    @Override
+    public void accountUpdated(CustomerAccount account) {
+        put(account);
+    }
+
+    @Override
+    public void accountDisabled(String accountID) {
+        CustomerAccount account = byAccountId.get(accountID);
+        if (account != null) {
+            account.is_active = false;
+        }
+    }
+
+    @Override
+    public void accountDeleted(String accountID) {
+        remove(accountID);
+    }
+
+    private void link(String customerID, String accountID) {
+        byCustomerId.compute(customerID, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(accountID);
+            return ids;
+        });
+    }
+
+    private void unlink(String customerID, String accountID) {
+        byCustomerId.computeIfPresent(customerID, (k, ids) -> {
+            ids.remove(accountID);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
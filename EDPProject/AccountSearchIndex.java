@@ -0,0 +1,302 @@
+package EDP;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-memory search over customerID, accountID, "firstName lastName" and email,
+// matching what searchCustomerAccounts' LIKE '%q%' finds.
+//   - substring queries of 3+ characters use the trigram index: scan the shortest
+//     posting list among the query's trigrams and verify each candidate;
+//   - one- and two-character queries are grams themselves: every document in their
+//     posting contains them, so the walk stops after limit hits.
+// Postings are ascending int document IDs, so the query's trigram postings are
+// intersected before any candidate is verified. An update or delete retires the
+// old document and takes its ID out of every posting it was added to.
+public class AccountSearchIndex implements AccountListener {
+    private static final int GRAM = 3;
+
+    private final DocTable docs = new DocTable();
+    private final ConcurrentHashMap<String, Integer> docByAccountId = new ConcurrentHashMap<>();
+    // Every substring of 1 to GRAM characters of each field
+    private final ConcurrentHashMap<String, Posting> grams = new ConcurrentHashMap<>();
+    private final AtomicInteger nextDocId = new AtomicInteger();
+    private volatile boolean warm = false;
+
+    // Indexes every account. complete says whether accounts is the full set (the load
+    // succeeded); only then does the index start answering queries.
+    public void build(Iterable<CustomerAccount> accounts, boolean complete) {
+        for (CustomerAccount account : accounts) {
+            add(account);
+        }
+        warm = complete;
+    }
+
+    // False until build() has run; callers fall back to SQL while cold.
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int size() {
+        return docByAccountId.size();
+    }
+
+    public void add(CustomerAccount account) {
+        int docId = nextDocId.getAndIncrement();
+        Doc doc = new Doc(account);
+        docs.set(docId, doc);
+        Integer previous = docByAccountId.put(account.accountID, docId);
+        if (previous != null) {
+            retire(previous);
+        }
+
+        for (String gram : gramsOf(doc)) {
+            // compute() so a concurrent retire cannot drop the posting as it empties
+            grams.compute(gram, (g, posting) -> {
+                Posting target = posting == null ? new Posting() : posting;
+                target.add(docId);
+                return target;
+            });
+        }
+    }
+
+    public void remove(String accountID) {
+        Integer docId = docByAccountId.remove(accountID);
+        if (docId != null) {
+            retire(docId);
+        }
+    }
+
+    // Accounts where any indexed field contains the query (case-insensitive), up to limit.
+    public List<CustomerAccount> search(String query, int limit) {
+        String q = query.toLowerCase().trim();
+        if (q.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (q.length() < GRAM) {
+            return walk(q, limit);
+        }
+
+        Set<String> queryGrams = new HashSet<>();
+        List<int[]> lists = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            String gram = q.substring(i, i + GRAM);
+            if (!queryGrams.add(gram)) {
+                continue;
+            }
+            Posting posting = grams.get(gram);
+            if (posting == null) {
+                return new ArrayList<>();
+            }
+            // Writers never change an array in place below its size, so this snapshot stays valid
+            synchronized (posting) {
+                lists.add(posting.ids);
+                sizes.add(posting.size);
+            }
+        }
+
+        // Walk the shortest list; probe the others with a forward-only binary search
+        Integer[] order = new Integer[lists.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(sizes.get(a), sizes.get(b)));
+        int[] driver = lists.get(order[0]);
+        int driverSize = sizes.get(order[0]);
+        int[] cursors = new int[order.length];
+
+        List<CustomerAccount> results = new ArrayList<>();
+        candidates:
+        for (int i = 0; i < driverSize; i++) {
+            int docId = driver[i];
+            for (int k = 1; k < order.length; k++) {
+                int[] other = lists.get(order[k]);
+                int found = Arrays.binarySearch(other, cursors[k], sizes.get(order[k]), docId);
+                if (found < 0) {
+                    cursors[k] = -found - 1;
+                    continue candidates;
+                }
+                cursors[k] = found;
+            }
+            Doc doc = docs.get(docId);
+            if (doc != null && doc.contains(q)) {
+                results.add(doc.account);
+                if (results.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    // A query shorter than a trigram is a gram itself; its posting holds exactly the
+    // documents containing it.
+    private List<CustomerAccount> walk(String q, int limit) {
+        List<CustomerAccount> results = new ArrayList<>();
+        Posting posting = grams.get(q);
+        if (posting == null) {
+            return results;
+        }
+        int[] ids;
+        int size;
+        synchronized (posting) {
+            ids = posting.ids;
+            size = posting.size;
+        }
+        for (int i = 0; i < size && results.size() < limit; i++) {
+            Doc doc = docs.get(ids[i]);
+            if (doc != null) {
+                results.add(doc.account);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void accountSaved(CustomerAccount account) {
+        add(account);
+    }
+
+    @Override
+    public void accountUpdated(CustomerAccount account) {
+        add(account);
+    }
+
+    @Override
+    public void accountDeleted(String accountID) {
+        remove(accountID);
+    }
+
+    private void retire(int docId) {
+        Doc doc = docs.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        for (String gram : gramsOf(doc)) {
+            grams.computeIfPresent(gram, (g, posting) -> posting.remove(docId) ? null : posting);
+        }
+    }
+
+    // Distinct substrings of 1 to GRAM characters across the document's fields
+    private static Set<String> gramsOf(Doc doc) {
+        Set<String> seen = new HashSet<>();
+        for (String field : doc.fields) {
+            for (int n = 1; n <= GRAM; n++) {
+                for (int i = 0; i + n <= field.length(); i++) {
+                    seen.add(field.substring(i, i + n));
+                }
+            }
+        }
+        return seen;
+    }
+
+    private static final class Doc {
+        final CustomerAccount account;
+        final String[] fields;
+
+        Doc(CustomerAccount account) {
+            this.account = account;
+            this.fields = new String[] {
+                lower(account.customerID),
+                lower(account.accountID),
+                fullName(account),
+                lower(account.email)
+            };
+        }
+
+        boolean contains(String q) {
+            for (String field : fields) {
+                if (field.contains(q)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Same as CONCAT(firstName, ' ', lastName): no name if either half is missing
+        private static String fullName(CustomerAccount account) {
+            if (account.firstName == null || account.lastName == null) {
+                return "";
+            }
+            return (account.firstName + " " + account.lastName).toLowerCase();
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : value.toLowerCase();
+        }
+    }
+
+    // Ascending, growable int list.
+    private static final class Posting {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        synchronized void add(int docId) {
+            // Writers can race past each other, so keep the list sorted; the copy
+            // means readers holding the old array never see it shift.
+            int[] target = size == ids.length ? Arrays.copyOf(ids, size * 2) : ids;
+            if (size > 0 && target[size - 1] > docId) {
+                if (target == ids) {
+                    target = Arrays.copyOf(ids, ids.length);
+                }
+                int pos = size;
+                while (pos > 0 && target[pos - 1] > docId) {
+                    target[pos] = target[pos - 1];
+                    pos--;
+                }
+                target[pos] = docId;
+            } else {
+                target[size] = docId;
+            }
+            ids = target;
+            size++;
+        }
+
+        // Removes docId into a fresh array, for the same reason; true once the list is empty.
+        synchronized boolean remove(int docId) {
+            int pos = Arrays.binarySearch(ids, 0, size, docId);
+            if (pos >= 0) {
+                int[] target = new int[ids.length];
+                System.arraycopy(ids, 0, target, 0, pos);
+                System.arraycopy(ids, pos + 1, target, pos, size - pos - 1);
+                ids = target;
+                size--;
+            }
+            return size == 0;
+        }
+    }
+
+    // Document slots indexed by ID; readers see the array through a volatile reference.
+    private static final class DocTable {
+        private volatile Doc[] slots = new Doc[1024];
+
+        synchronized void set(int docId, Doc doc) {
+            Doc[] current = slots;
+            if (docId >= current.length) {
+                current = Arrays.copyOf(current, Math.max(docId + 1, current.length * 2));
+            }
+            current[docId] = doc;
+            slots = current;
+        }
+
+        Doc get(int docId) {
+            Doc[] current = slots;
+            return docId < current.length ? current[docId] : null;
+        }
+
+        synchronized Doc remove(int docId) {
+            Doc[] current = slots;
+            if (docId >= current.length) {
+                return null;
+            }
+            Doc doc = current[docId];
+            current[docId] = null;
+            return doc;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package EDP;
+
+import java.util.regex.Pattern;
+
+// Field rules shared by the ManagerDashboard update form and the bulk importer.
+public final class AccountValidation {
+    private static final Pattern PHONE = Pattern.compile("^09\\d{9}$");
+    private static final Pattern EMAIL = Pattern.compile("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+
+    private AccountValidation() {
+    }
+
+    // Philippine mobile number, 09XXXXXXXXX
+    public static boolean isValidPhone(String phone) {
+        return phone != null && PHONE.matcher(phone).matches();
+    }
+
+    // Email is optional; an empty one is valid
+    public static boolean isValidEmail(String email) {
+        return email == null || email.isEmpty() || EMAIL.matcher(email).matches();
+    }
+
+    public static boolean hasRequiredNames(String firstName, String lastName) {
+        return firstName != null && !firstName.trim().isEmpty()
+            && lastName != null && !lastName.trim().isEmpty();
+    }
+}
@@ -0,0 +1,165 @@
+package EDP;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves savings_account and checkings_account into one indexed accounts table.
+// Cut-over runs in phases, chosen with -Dbank.accounts.phase:
+//   LEGACY        read and write the two legacy tables only (default)
+//   DUAL_WRITE    write both layouts, read legacy; run migrate() in this phase
+//   UNIFIED       write both layouts, read accounts; legacy still usable to roll back
+//   ACCOUNTS_ONLY read and write accounts only
+public class AccountsMigration {
+    enum Phase { LEGACY, DUAL_WRITE, UNIFIED, ACCOUNTS_ONLY }
+
+    static final Phase PHASE = Phase.valueOf(System.getProperty("bank.accounts.phase", "LEGACY").toUpperCase());
+
+    static final String UNIFIED_TABLE = "accounts";
+
+    // ID columns use a binary collation so that exact, case-sensitive matches
+    // (what the old BINARY comparisons did) can still use the indexes.
+    static final String CREATE_ACCOUNTS_SQL =
+        "CREATE TABLE IF NOT EXISTS accounts (" +
+        "  accountID VARCHAR(32) COLLATE utf8mb4_bin NOT NULL," +
+        "  customerID VARCHAR(32) COLLATE utf8mb4_bin NOT NULL," +
+        "  account_type VARCHAR(20) NOT NULL," +
+        "  firstName VARCHAR(100)," +
+        "  middleName VARCHAR(100)," +
+        "  lastName VARCHAR(100)," +
+        "  birthDate DATE," +
+        "  age INT," +
+        "  street VARCHAR(150)," +
+        "  barangay VARCHAR(100)," +
+        "  municipality VARCHAR(100)," +
+        "  provinceCity VARCHAR(100)," +
+        "  zip VARCHAR(10)," +
+        "  phone VARCHAR(20)," +
+        "  email VARCHAR(150)," +
+        "  gender VARCHAR(10)," +
+        "  balance DECIMAL(15,2) NOT NULL DEFAULT 0," +
+        "  is_active BOOLEAN NOT NULL DEFAULT TRUE," +
+        "  PRIMARY KEY (accountID)," +
+        "  KEY idx_accounts_customer (customerID)," +
+        "  KEY idx_accounts_active_type (is_active, account_type)" +
+        ")";
+
+    private static final String COLUMNS =
+        "customerID, accountID, firstName, middleName, lastName, birthDate, age, street, barangay, " +
+        "municipality, provinceCity, zip, phone, email, gender, balance, is_active";
+
+    // Re-runnable: rows already copied are refreshed from the legacy table. An accountID
+    // that is both a savings and a checking account would be merged into one row here,
+    // so migrate() refuses to run until conflicts() comes back empty.
+    private static final String BACKFILL_SQL =
+        "INSERT INTO accounts (" + COLUMNS + ", account_type) " +
+        "SELECT " + COLUMNS + ", ? FROM %s " +
+        "ON DUPLICATE KEY UPDATE customerID = VALUES(customerID), firstName = VALUES(firstName), " +
+        "middleName = VALUES(middleName), lastName = VALUES(lastName), birthDate = VALUES(birthDate), " +
+        "age = VALUES(age), street = VALUES(street), barangay = VALUES(barangay), " +
+        "municipality = VALUES(municipality), provinceCity = VALUES(provinceCity), zip = VALUES(zip), " +
+        "phone = VALUES(phone), email = VALUES(email), gender = VALUES(gender), " +
+        "balance = VALUES(balance), is_active = VALUES(is_active)";
+
+    // Same accountID in both legacy tables
+    private static final String LEGACY_CONFLICTS_SQL =
+        "SELECT s.accountID, s.customerID, c.customerID FROM savings_account s " +
+        "JOIN checkings_account c ON BINARY c.accountID = s.accountID";
+
+    // Already copied under the other account type
+    private static final String COPIED_CONFLICTS_SQL =
+        "SELECT a.accountID, a.account_type FROM accounts a " +
+        "JOIN %s l ON BINARY l.accountID = a.accountID WHERE a.account_type <> ?";
+
+    static boolean readsUnified() {
+        return PHASE == Phase.UNIFIED || PHASE == Phase.ACCOUNTS_ONLY;
+    }
+
+    // Table holding the authoritative row for reads of one account
+    static String primaryTable(String accountType) {
+        return readsUnified() ? UNIFIED_TABLE : legacyTable(accountType);
+    }
+
+    // Every table a write to this account must reach in the current phase
+    static List<String> writeTables(String accountType) {
+        switch (PHASE) {
+            case DUAL_WRITE:
+                return List.of(legacyTable(accountType), UNIFIED_TABLE);
+            case UNIFIED:
+                return List.of(UNIFIED_TABLE, legacyTable(accountType));
+            case ACCOUNTS_ONLY:
+                return List.of(UNIFIED_TABLE);
+            default:
+                return List.of(legacyTable(accountType));
+        }
+    }
+
+    static String legacyTable(String accountType) {
+        return accountType.equalsIgnoreCase("Savings Account")
+               ? "savings_account"
+               : "checkings_account";
+    }
+
+    // Creates the accounts table and copies both legacy tables into it in one transaction.
+    // Stops without copying anything if an accountID belongs to both account types.
+    public static void migrate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_ACCOUNTS_SQL);
+            }
+            conn.setAutoCommit(false);
+            try {
+                List<String> conflicts = conflicts(conn);
+                if (!conflicts.isEmpty()) {
+                    for (String conflict : conflicts) {
+                        System.err.println("Accounts migration conflict: " + conflict);
+                    }
+                    throw new SQLException(conflicts.size() + " accountID conflict(s) between savings and checking accounts;"
+                                           + " resolve them and run the migration again");
+                }
+                int copied = backfill(conn, "savings_account", "Savings Account")
+                           + backfill(conn, "checkings_account", "Checking Account");
+                conn.commit();
+                System.out.println("Accounts migration: " + copied + " rows copied into accounts");
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static List<String> conflicts(Connection conn) throws SQLException {
+        List<String> conflicts = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(LEGACY_CONFLICTS_SQL)) {
+            while (rs.next()) {
+                conflicts.add(rs.getString(1) + " is in savings_account (customer " + rs.getString(2)
+                              + ") and checkings_account (customer " + rs.getString(3) + ")");
+            }
+        }
+        for (String accountType : List.of("Savings Account", "Checking Account")) {
+            String legacyTable = legacyTable(accountType);
+            try (PreparedStatement pstmt = conn.prepareStatement(String.format(COPIED_CONFLICTS_SQL, legacyTable))) {
+                pstmt.setString(1, accountType);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        conflicts.add(rs.getString(1) + " is in " + legacyTable + " but already copied as "
+                                      + rs.getString(2));
+                    }
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private static int backfill(Connection conn, String legacyTable, String accountType) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(String.format(BACKFILL_SQL, legacyTable))) {
+            pstmt.setString(1, accountType);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        migrate();
+    }
+}
@@ -0,0 +1,161 @@
+package EDP;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+// Non-blocking front for DatabaseUtil. Every call runs on its own virtual thread;
+// a semaphore per operation class (reads, writes, analytics) caps how many of
+// each may hold a pooled connection at once, so a burst of dashboard scans
+// cannot starve logins and deposits. By default the three caps add up to
+// bank.pool.maxSize, so a call that got past its semaphore never waits on the pool.
+// Continue on the Swing thread with whenCompleteAsync(..., AsyncDatabaseUtil.EDT), so
+// whatever was disabled for the call is re-enabled on failure too.
+public class AsyncDatabaseUtil {
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private static final ExecutorService VIRTUAL = Executors.newVirtualThreadPerTaskExecutor();
+
+    // A fifth of the pool for analytics, a quarter for writes, the rest for reads; at least one each
+    private static final int POOL_SIZE = DatabaseUtil.getPool().getMaxSize();
+    private static final int ANALYTICS_PERMITS = Integer.getInteger("bank.async.analytics", Math.max(1, POOL_SIZE / 5));
+    private static final int WRITE_PERMITS = Integer.getInteger("bank.async.writes", Math.max(1, POOL_SIZE / 4));
+    private static final int READ_PERMITS = Integer.getInteger("bank.async.reads", Math.max(1, POOL_SIZE - WRITE_PERMITS - ANALYTICS_PERMITS));
+
+    private static final Semaphore READS = new Semaphore(READ_PERMITS, true);
+    private static final Semaphore WRITES = new Semaphore(WRITE_PERMITS, true);
+    private static final Semaphore ANALYTICS = new Semaphore(ANALYTICS_PERMITS, true);
+
+    // Reads
+
+    public static CompletableFuture<List<BankUser>> loadBankUsers(String username, String password) {
+        return submit(READS, () -> DatabaseUtil.loadBankUsers(username, password));
+    }
+
+    public static CompletableFuture<CustomerAccount> getCustomerAccount(String accountId) {
+        return submit(READS, () -> DatabaseUtil.getCustomerAccount(accountId));
+    }
+
+    public static CompletableFuture<List<CustomerAccount>> searchCustomerAccounts(String query, int limit) {
+        return submit(READS, () -> DatabaseUtil.searchCustomerAccounts(query, limit));
+    }
+
+    public static CompletableFuture<List<Transaction>> getTransactions(String accountId) {
+        return submit(READS, () -> DatabaseUtil.getTransactions(accountId));
+    }
+
+    public static CompletableFuture<List<Transaction>> getTransactionsPage(String accountId, Date beforeDate, String beforeId, int pageSize) {
+        return submit(READS, () -> {
+            try {
+                return DatabaseUtil.getTransactionsPage(accountId, beforeDate, beforeId, pageSize);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    public static CompletableFuture<List<CustomerAccount>> loadCustomerAccounts() {
+        return submit(READS, DatabaseUtil::loadCustomerAccounts);
+    }
+
+    // Writes
+
+    public static CompletableFuture<Void> saveCustomerAccount(CustomerAccount account) {
+        return submit(WRITES, () -> {
+            DatabaseUtil.saveCustomerAccount(account);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<Boolean> updateCustomerAccount(CustomerAccount account) {
+        return submit(WRITES, () -> DatabaseUtil.updateCustomerAccount(account));
+    }
+
+    public static CompletableFuture<Boolean> deleteCustomerAccount(String accountId) {
+        return submit(WRITES, () -> DatabaseUtil.deleteCustomerAccount(accountId));
+    }
+
+    public static CompletableFuture<Boolean> disableAccount(String accountId) {
+        return submit(WRITES, () -> DatabaseUtil.disableAccount(accountId));
+    }
+
+    public static CompletableFuture<Transaction> postTransaction(CustomerAccount account, String type, long delta) {
+        return submit(WRITES, () -> DatabaseUtil.postTransaction(account, type, delta));
+    }
+
+    // Analytics
+
+    public static CompletableFuture<Long> getTotalDeposits() {
+        return submit(ANALYTICS, DatabaseUtil::getTotalDeposits);
+    }
+
+    public static CompletableFuture<Long> getTotalWithdrawals() {
+        return submit(ANALYTICS, DatabaseUtil::getTotalWithdrawals);
+    }
+
+    public static CompletableFuture<Integer> getTotalCustomers() {
+        return submit(ANALYTICS, DatabaseUtil::getTotalCustomers);
+    }
+
+    public static CompletableFuture<Integer> getTotalTransactions() {
+        return submit(ANALYTICS, DatabaseUtil::getTotalTransactions);
+    }
+
+    public static CompletableFuture<DashboardAggregates.Totals> getDashboardTotals() {
+        return submit(ANALYTICS, DashboardAggregates::read);
+    }
+
+    // Statements stream a month of history per account, so they queue with the other scans
+    public static CompletableFuture<StatementGenerator.Result> generateStatement(String accountId, YearMonth period, Path dir) {
+        return submit(ANALYTICS, () -> {
+            try {
+                return StatementGenerator.generate(accountId, period, dir);
+            } catch (IOException | SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    public static CompletableFuture<StatementGenerator.MonthEndResult> runMonthEndStatements(YearMonth period, Path dir, int parallelism) {
+        return submit(ANALYTICS, () -> {
+            try {
+                return StatementGenerator.runMonthEnd(period, dir, parallelism);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    // The underlying failure behind a completed-exceptionally future, for display
+    public static String errorMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    private static <T> CompletableFuture<T> submit(Semaphore bulkhead, Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                bulkhead.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return call.get();
+            } finally {
+                bulkhead.release();
+            }
+        }, VIRTUAL);
+    }
+}
@@ -0,0 +1,267 @@
+package EDP;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Per-account balance checkpoints: one row per account per day (or month, with
+// -Dbank.checkpoint.granularity=MONTH) holding the balance after the last transaction
+// in that bucket. Rows are upserted inside the same DB transaction that inserts the
+// transactions, so every bucket with activity has a checkpoint. balanceAsOf() then
+// reads the nearest earlier checkpoint and sums only the transactions after the one it
+// records, instead of walking the account's whole history.
+// SchemaMigrations creates the table; run rebuild() once to backfill history written
+// before checkpoints existed.
+public class BalanceCheckpoints {
+    enum Granularity { DAY, MONTH }
+
+    static final Granularity GRANULARITY =
+        Granularity.valueOf(System.getProperty("bank.checkpoint.granularity", "DAY").toUpperCase());
+
+    private static final String TABLE = "balance_checkpoints";
+
+    private static final String CREATE_SQL =
+        "CREATE TABLE IF NOT EXISTS balance_checkpoints (" +
+        "  accountID VARCHAR(32) COLLATE utf8mb4_bin NOT NULL," +
+        "  bucket DATE NOT NULL," +
+        "  balance DECIMAL(15,2) NOT NULL," +
+        "  last_date DATETIME NOT NULL," +
+        "  last_transactionID VARCHAR(32) NOT NULL," +
+        "  PRIMARY KEY (accountID, bucket)" +
+        ")";
+
+    // Only a later transaction (by date, then ID) may move a checkpoint. The columns are
+    // assigned left to right, so balance and ID are compared before last_date changes.
+    private static final String UPSERT_SQL =
+        "INSERT INTO balance_checkpoints (accountID, bucket, balance, last_date, last_transactionID) " +
+        "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+        "balance = IF(VALUES(last_date) > last_date OR (VALUES(last_date) = last_date AND VALUES(last_transactionID) > last_transactionID), VALUES(balance), balance), " +
+        "last_transactionID = IF(VALUES(last_date) > last_date OR (VALUES(last_date) = last_date AND VALUES(last_transactionID) > last_transactionID), VALUES(last_transactionID), last_transactionID), " +
+        "last_date = IF(VALUES(last_date) > last_date, VALUES(last_date), last_date)";
+
+    // Signed effect of a transaction row on its balance
+    static final String SIGNED_AMOUNT_SQL =
+        "CASE WHEN type IN ('Withdrawal', 'Monthly Fee') THEN -amount ELSE amount END";
+
+    // null until the table has been looked up; false disables maintenance (balanceAsOf falls back)
+    private static volatile Boolean available = null;
+
+    static boolean isDebit(String type) {
+        return "Withdrawal".equals(type) || "Monthly Fee".equals(type);
+    }
+
+    // Call on the connection that inserted the transactions, before commit.
+    // accountIds.get(i) is the account of transactions.get(i).
+    static void record(Connection conn, List<String> accountIds, List<Transaction> transactions) throws SQLException {
+        if (!isAvailable(conn)) {
+            return;
+        }
+        // Only the latest transaction of each account and bucket matters; key order keeps
+        // concurrent writers locking checkpoint rows in the same order
+        Map<String, Integer> latest = new TreeMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            String key = accountIds.get(i) + '\u0000' + bucketOf(transactions.get(i).date);
+            Integer previous = latest.get(key);
+            if (previous == null || isLater(transactions.get(i), transactions.get(previous))) {
+                latest.put(key, i);
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            for (int i : latest.values()) {
+                Transaction t = transactions.get(i);
+                pstmt.setString(1, accountIds.get(i));
+                pstmt.setDate(2, java.sql.Date.valueOf(bucketOf(t.date)));
+                Money.bind(pstmt, 3, t.balanceAfter);
+                pstmt.setTimestamp(4, new Timestamp(t.date.getTime()));
+                pstmt.setString(5, t.transactionID);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Balance just before asOf: the checkpoint of the latest earlier bucket plus the
+    // transactions after its (last_date, last_transactionID) and before asOf. Without an
+    // earlier checkpoint, withoutCheckpoint() works it out from the rows around asOf.
+    public static long balanceAsOf(String accountId, Date asOf) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (isAvailable(conn)) {
+                long balance = Money.ZERO;
+                Timestamp lastDate = null;
+                String lastId = null;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT balance, last_date, last_transactionID FROM balance_checkpoints " +
+                        "WHERE accountID = ? AND bucket < ? ORDER BY bucket DESC LIMIT 1")) {
+                    pstmt.setString(1, accountId);
+                    pstmt.setDate(2, java.sql.Date.valueOf(bucketOf(asOf)));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            balance = Money.read(rs, 1);
+                            lastDate = rs.getTimestamp(2);
+                            lastId = rs.getString(3);
+                        }
+                    }
+                }
+                if (lastDate != null) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "SELECT COALESCE(SUM(" + SIGNED_AMOUNT_SQL + "), 0) FROM transactions " +
+                            "WHERE accountID = ? AND (date, transactionID) > (?, ?) AND date < ?")) {
+                        pstmt.setString(1, accountId);
+                        pstmt.setTimestamp(2, lastDate);
+                        pstmt.setString(3, lastId);
+                        pstmt.setTimestamp(4, new Timestamp(asOf.getTime()));
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            return rs.next() ? Money.add(balance, Money.read(rs, 1)) : balance;
+                        }
+                    }
+                }
+            }
+        }
+        // Opened only after the connection above is back in the pool
+        return withoutCheckpoint(accountId, asOf);
+    }
+
+    // History not yet rebuilt, or nothing before asOf: the balanceAfter of the last
+    // transaction before asOf, one index seek. With none, the account opened on or after
+    // asOf; opening deposits have no row, so the balance before its first transaction
+    // is that row's balanceAfter less its own amount. With no transactions at all the
+    // stored balance has never moved.
+    private static long withoutCheckpoint(String accountId, Date asOf) throws SQLException {
+        Long before = DatabaseUtil.getBalanceBefore(accountId, asOf);
+        if (before == null) {
+            before = DatabaseUtil.getBalanceBeforeFirstFrom(accountId, asOf);
+        }
+        if (before == null) {
+            CustomerAccount account = DatabaseUtil.getCustomerAccount(accountId);
+            before = account == null ? Money.ZERO : account.getBalance();
+        }
+        return before;
+    }
+
+    // Recomputes every checkpoint from the transactions table, chunks of accounts in parallel.
+    public static void rebuild(int parallelism, int chunkSize) throws SQLException {
+        long start = System.nanoTime();
+        List<String> accountIds = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (!isAvailable(conn)) {
+                throw new SQLException(TABLE + " is missing, run SchemaMigrations");
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT DISTINCT accountID FROM transactions ORDER BY accountID")) {
+                while (rs.next()) {
+                    accountIds.add(rs.getString(1));
+                }
+            }
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        int failed = 0;
+        long rows = 0;
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (int from = 0; from < accountIds.size(); from += chunkSize) {
+                List<String> chunk = accountIds.subList(from, Math.min(from + chunkSize, accountIds.size()));
+                chunks.add(workers.submit(() -> rebuildChunk(chunk)));
+            }
+            for (Future<Integer> chunk : chunks) {
+                try {
+                    rows += chunk.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println("Checkpoint rebuild chunk failed: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+        System.out.printf("Balance checkpoints rebuilt for %d accounts: %d rows, %d chunks failed, %d ms%n",
+                          accountIds.size(), rows, failed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // One chunk in one transaction: replace its checkpoints with the last row of each bucket
+    private static int rebuildChunk(List<String> accountIds) throws SQLException {
+        String in = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        String bucketExpr = GRANULARITY == Granularity.MONTH ? "DATE_FORMAT(date, '%Y-%m-01')" : "DATE(date)";
+        String sql =
+            "INSERT INTO balance_checkpoints (accountID, bucket, balance, last_date, last_transactionID) " +
+            "SELECT accountID, bucket, balanceAfter, date, transactionID FROM (" +
+            "  SELECT accountID, " + bucketExpr + " AS bucket, balanceAfter, date, transactionID, " +
+            "         ROW_NUMBER() OVER (PARTITION BY accountID, " + bucketExpr + " ORDER BY date DESC, transactionID DESC) AS rn " +
+            "  FROM transactions WHERE accountID IN (" + in + ")" +
+            ") last_rows WHERE rn = 1 " +
+            "ON DUPLICATE KEY UPDATE balance = VALUES(balance), last_date = VALUES(last_date), " +
+            "last_transactionID = VALUES(last_transactionID)";
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM balance_checkpoints WHERE accountID IN (" + in + ")");
+                 PreparedStatement insert = conn.prepareStatement(sql)) {
+                int i = 1;
+                for (String id : accountIds) {
+                    delete.setString(i, id);
+                    insert.setString(i, id);
+                    i++;
+                }
+                delete.executeUpdate();
+                int rows = insert.executeUpdate();
+                conn.commit();
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    static LocalDate bucketOf(Date date) {
+        LocalDate day = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return GRANULARITY == Granularity.MONTH ? day.withDayOfMonth(1) : day;
+    }
+
+    private static boolean isLater(Transaction a, Transaction b) {
+        int byDate = a.date.compareTo(b.date);
+        return byDate > 0 || (byDate == 0 && a.transactionID.compareTo(b.transactionID) > 0);
+    }
+
+    // Looks the table up once, on the caller's connection; nothing is created here,
+    // since writers call this inside their own DB transaction.
+    private static boolean isAvailable(Connection conn) throws SQLException {
+        Boolean ready = available;
+        if (ready == null) {
+            try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, TABLE, null)) {
+                ready = rs.next();
+            }
+            if (!ready) {
+                System.err.println("Balance checkpoints disabled: " + TABLE + " is missing, run SchemaMigrations");
+            }
+            available = ready;
+        }
+        return ready;
+    }
+
+    // Creates the table; existing history needs rebuild(). Run from SchemaMigrations.
+    static void migrate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_SQL);
+        }
+        available = true;
+    }
+
+    // Usage: BalanceCheckpoints   (rebuilds every checkpoint)
+    public static void main(String[] args) throws SQLException {
+        rebuild(Integer.getInteger("bank.checkpoint.parallelism", 4), Integer.getInteger("bank.checkpoint.chunkSize", 500));
+    }
+}
@@ -0,0 +1,492 @@
+package EDP;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded JDBC connection pool used behind DatabaseUtil.getConnection().
+// Callers keep using try-with-resources: close() on a borrowed connection
+// hands it back to the pool instead of closing the socket.
+public final class ConnectionPool {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long validateAfterMillis;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validateAfterMillis = 30_000;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        // First run fills the pool up to minSize in the background, so a
+        // database that is down at startup does not block class loading.
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, 30, TimeUnit.SECONDS);
+    }
+
+    // Builds a pool from -Dbank.pool.* system properties.
+    public static ConnectionPool fromSystemProperties(String url, String user, String password) {
+        if (Boolean.parseBoolean(System.getProperty("bank.pool.serverPrepStmts", "true"))) {
+            url = withServerPrepStmts(url);
+        }
+        return new ConnectionPool(url, user, password,
+                Integer.getInteger("bank.pool.minSize", 2),
+                Integer.getInteger("bank.pool.maxSize", 10),
+                Long.getLong("bank.pool.borrowTimeoutMs", 30_000L),
+                Long.getLong("bank.pool.idleTimeoutMs", 600_000L),
+                Long.getLong("bank.pool.leakThresholdMs", 60_000L),
+                Integer.getInteger("bank.pool.statementCacheSize", 64));
+    }
+
+    // Connector/J only emulates prepared statements unless told otherwise: it inlines
+    // the parameters and sends plain SQL, so the statement cache saved object churn but
+    // the server still parsed every execution. These flags make it prepare on the
+    // server, and keep the server handle when a statement the cache evicted is closed.
+    // The SQL limit is raised because several queries here are longer than its 256
+    // default. Settings already in the URL win; other drivers' URLs are left alone.
+    static String withServerPrepStmts(String url) {
+        if (!url.startsWith("jdbc:mysql:") || url.contains("useServerPrepStmts=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?")
+               + "useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (max " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (isUsable(pc)) {
+                    break;
+                }
+                destroy(pc);
+            }
+            if (pc == null) {
+                pc = create();
+            }
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowSite = leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            pc.leakReported = false;
+            borrowed.add(pc);
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Opens connections until minSize is reached; used to warm the pool ahead of the first query.
+    public void warmUp() throws SQLException {
+        while (!closed && totalConnections.get() < minSize) {
+            PooledConnection pc = create();
+            pc.lastUsed = System.currentTimeMillis();
+            idle.offerLast(pc);
+        }
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        totalConnections.incrementAndGet();
+        try {
+            return new PooledConnection(DriverManager.getConnection(url, user, password));
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        totalConnections.decrementAndGet();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+            // Already broken; nothing else to release.
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        try {
+            if (pc.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - pc.lastUsed < validateAfterMillis) {
+                return true;
+            }
+            return pc.physical.isValid(5);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        if (!borrowed.remove(pc)) {
+            return;
+        }
+        boolean healthy;
+        try {
+            // Statements the caller never closed would stay checked out (and
+            // uncacheable) for every later borrower of this connection.
+            pc.checkinStatements();
+            if (!pc.physical.getAutoCommit()) {
+                // A caller left a transaction open; never hand it to the next borrower.
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            healthy = !pc.physical.isClosed();
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        if (healthy && !closed) {
+            pc.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } else {
+            destroy(pc);
+        }
+        permits.release();
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Idle eviction: drop connections unused for idleTimeout, oldest first, down to minSize.
+        if (idleTimeoutMillis > 0) {
+            PooledConnection oldest;
+            while (totalConnections.get() > minSize && (oldest = idle.peekLast()) != null
+                    && now - oldest.lastUsed > idleTimeoutMillis) {
+                if (idle.removeLastOccurrence(oldest)) {
+                    destroy(oldest);
+                }
+            }
+        }
+
+        // Leak detection: report connections held longer than the threshold, once each.
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pc : borrowed) {
+                if (!pc.leakReported && now - pc.borrowedAt > leakThresholdMillis) {
+                    pc.leakReported = true;
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - pc.borrowedAt) + " ms");
+                    if (pc.borrowSite != null) {
+                        pc.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        try {
+            warmUp();
+        } catch (SQLException e) {
+            System.err.println("Connection pool could not reach minimum size: " + e.getMessage());
+        }
+    }
+
+    private final class PooledConnection {
+        final Connection physical;
+        // Prepared statements keyed by SQL text, least recently used evicted first.
+        // Only touched by the current borrower, so no locking is needed.
+        final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement prepareCached(String sql) throws SQLException {
+            if (statementCacheSize <= 0) {
+                statementCacheMisses.incrementAndGet();
+                return physical.prepareStatement(sql);
+            }
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && cached.evicted) {
+                // Closed after a failed reset; replace it.
+                statements.remove(sql);
+                cached = null;
+            }
+            if (cached != null && !cached.inUse) {
+                statementCacheHits.incrementAndGet();
+                return cached.checkout();
+            }
+            statementCacheMisses.incrementAndGet();
+            PreparedStatement ps = physical.prepareStatement(sql);
+            if (cached != null) {
+                // Same SQL already open by this borrower; hand out an uncached one.
+                return ps;
+            }
+            cached = new CachedStatement(ps);
+            statements.put(sql, cached);
+            return cached.checkout();
+        }
+
+        void checkinStatements() {
+            for (CachedStatement cached : new ArrayList<>(statements.values())) {
+                if (cached.inUse) {
+                    try {
+                        cached.checkin();
+                    } catch (SQLException ignored) {
+                        // checkin() already closed it; prepareCached replaces it.
+                    }
+                }
+            }
+        }
+
+        // Each borrow gets its own handle so a stale reference cannot touch the
+        // connection after it has been handed to somebody else.
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean returned = false;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pc.physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return pc.prepareCached((String) args[0]);
+            }
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // A statement kept open across borrows. close() on a checked-out handle
+    // only resets it; the real statement closes on eviction or with its connection.
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        // Driver defaults, restored on checkin so one caller's settings do not leak into the next
+        final int defaultFetchSize;
+        final int defaultMaxRows;
+        final int defaultQueryTimeout;
+        final List<ResultSet> openResults = new ArrayList<>();
+        StatementHandle handle;
+        boolean inUse = false;
+        boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+        }
+
+        PreparedStatement checkout() {
+            inUse = true;
+            handle = new StatementHandle(this);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, handle);
+        }
+
+        void checkin() throws SQLException {
+            inUse = false;
+            // A handle still held by its caller must not reach the next borrower's statement
+            handle.closed = true;
+            handle = null;
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                openResults.clear();
+                if (evicted) {
+                    statement.close();
+                    return;
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.setFetchSize(defaultFetchSize);
+                statement.setMaxRows(defaultMaxRows);
+                statement.setQueryTimeout(defaultQueryTimeout);
+            } catch (SQLException e) {
+                openResults.clear();
+                evict();
+                throw e;
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // Statement is going away either way.
+                }
+            }
+        }
+    }
+
+    private static final class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private boolean closed = false;
+
+        StatementHandle(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.checkin();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                cached.openResults.add((ResultSet) result);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package EDP;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Running dashboard totals kept in the dashboard_aggregates table and updated inside
+// the same DB transaction as each deposit, withdrawal, account creation, disable and
+// delete. Totals are spread over a few slot rows so concurrent tellers do not all
+// queue on one row lock; reading them is a SUM over those rows, never a scan of
+// transactions. recompute() rebuilds everything from the base tables on demand.
+// The totals follow the dashboard scans they replace: deposits and withdrawals count
+// only active accounts, while customers and transactions count every row.
+// The table is created by SchemaMigrations; without it the dashboard scans instead.
+public class DashboardAggregates {
+    private static final String TABLE = "dashboard_aggregates";
+
+    static final int SLOTS = 16;
+
+    private static final String CREATE_SQL =
+        "CREATE TABLE IF NOT EXISTS dashboard_aggregates (" +
+        "  slot INT NOT NULL PRIMARY KEY," +
+        "  total_deposits DECIMAL(18,2) NOT NULL DEFAULT 0," +
+        "  total_withdrawals DECIMAL(18,2) NOT NULL DEFAULT 0," +
+        "  total_customers INT NOT NULL DEFAULT 0," +
+        "  total_transactions BIGINT NOT NULL DEFAULT 0" +
+        ")";
+
+    private static final String ADD_SQL =
+        "UPDATE dashboard_aggregates SET total_deposits = total_deposits + ?, " +
+        "total_withdrawals = total_withdrawals + ?, total_customers = total_customers + ?, " +
+        "total_transactions = total_transactions + ? WHERE slot = ?";
+
+    private static final String READ_SQL =
+        "SELECT COUNT(*), SUM(total_deposits), SUM(total_withdrawals), SUM(total_customers), " +
+        "SUM(total_transactions) FROM dashboard_aggregates";
+
+    // null until the table has been looked up; false disables maintenance (dashboard falls back to scans)
+    private static volatile Boolean available = null;
+    // Last totals returned by read(); lets the dashboard paint before its first query returns
+    private static volatile Totals latest = null;
+
+    public static final class Totals {
+        public final long deposits;     // centavos
+        public final long withdrawals;  // centavos
+        public final int customers;
+        public final long transactions;
+
+        Totals(long deposits, long withdrawals, int customers, long transactions) {
+            this.deposits = deposits;
+            this.withdrawals = withdrawals;
+            this.customers = customers;
+            this.transactions = transactions;
+        }
+    }
+
+    // Counts transactions written on conn, accountIDs.get(i) being the account of
+    // transactions.get(i). Only Deposit and Withdrawal on active accounts move the money totals.
+    static void recordTransactions(Connection conn, List<String> accountIDs, List<Transaction> transactions) throws SQLException {
+        if (!isAvailable(conn) || transactions.isEmpty()) {
+            return;
+        }
+        Set<String> active = activeAccounts(conn, accountIDs);
+        long deposits = Money.ZERO;
+        long withdrawals = Money.ZERO;
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction t = transactions.get(i);
+            if (!active.contains(accountIDs.get(i))) {
+                continue;
+            }
+            if ("Deposit".equals(t.type)) {
+                deposits = Money.add(deposits, t.amount);
+            } else if ("Withdrawal".equals(t.type)) {
+                withdrawals = Money.add(withdrawals, t.amount);
+            }
+        }
+        add(conn, deposits, withdrawals, 0, transactions.size());
+    }
+
+    static void recordAccountCreated(Connection conn) throws SQLException {
+        recordAccountsCreated(conn, 1);
+    }
+
+    static void recordAccountsCreated(Connection conn, int count) throws SQLException {
+        if (count > 0 && isAvailable(conn)) {
+            add(conn, 0, 0, count, 0);
+        }
+    }
+
+    static void recordAccountDeleted(Connection conn) throws SQLException {
+        if (isAvailable(conn)) {
+            add(conn, 0, 0, -1, 0);
+        }
+    }
+
+    // Call before the account is marked inactive: the money totals only cover active
+    // accounts. The account row is locked first, so a posting to it either committed
+    // before (and is in the sum, read after the lock) or waits and then sees it inactive.
+    static void recordAccountDisabled(Connection conn, String accountID) throws SQLException {
+        if (!isAvailable(conn) || activeAccounts(conn, List.of(accountID)).isEmpty()) {
+            return;
+        }
+
+        String sumSql = "SELECT " +
+            "COALESCE(SUM(CASE WHEN type = 'Deposit' THEN amount END), 0), " +
+            "COALESCE(SUM(CASE WHEN type = 'Withdrawal' THEN amount END), 0) " +
+            "FROM transactions WHERE accountID = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sumSql)) {
+            pstmt.setString(1, accountID);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    add(conn, Money.negate(Money.read(rs, 1)), Money.negate(Money.read(rs, 2)), 0, 0);
+                }
+            }
+        }
+    }
+
+    // Current totals; computed from the base tables if the aggregates table is missing or empty.
+    public static Totals read() {
+        Totals totals = null;
+        boolean maintained = false;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            maintained = isAvailable(conn);
+            if (maintained) {
+                try (PreparedStatement pstmt = conn.prepareStatement(READ_SQL);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) > 0) {
+                        totals = new Totals(Money.read(rs, 2), Money.read(rs, 3), rs.getInt(4), rs.getLong(5));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Dashboard aggregates unreadable, scanning instead: " + e.getMessage());
+        }
+        if (totals == null) {
+            totals = maintained ? recompute() : scan();
+        }
+        latest = totals;
+        return totals;
+    }
+
+    // Totals from the most recent read(), or null if nothing has been read yet.
+    public static Totals latest() {
+        return latest;
+    }
+
+    // Full rebuild from the base tables. Best run while no tellers are posting.
+    public static Totals recompute() {
+        Totals totals = scan();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (!isAvailable(conn)) {
+                return totals;
+            }
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement();
+                 PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO dashboard_aggregates (slot, total_deposits, total_withdrawals, total_customers, total_transactions) " +
+                     "VALUES (?, ?, ?, ?, ?)")) {
+                stmt.executeUpdate("DELETE FROM dashboard_aggregates");
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    insert.setInt(1, slot);
+                    Money.bind(insert, 2, slot == 0 ? totals.deposits : Money.ZERO);
+                    Money.bind(insert, 3, slot == 0 ? totals.withdrawals : Money.ZERO);
+                    insert.setInt(4, slot == 0 ? totals.customers : 0);
+                    insert.setLong(5, slot == 0 ? totals.transactions : 0);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not store recomputed dashboard aggregates: " + e.getMessage());
+        }
+        return totals;
+    }
+
+    // Creates the table and rebuilds it from the base tables, which also brings totals
+    // kept under the old rules (deposits and withdrawals counted on every account) in
+    // line with the scans. Run from SchemaMigrations while no tellers are posting.
+    static void migrate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_SQL);
+        }
+        available = true;
+        recompute();
+    }
+
+    private static Totals scan() {
+        return new Totals(DatabaseUtil.getTotalDeposits(), DatabaseUtil.getTotalWithdrawals(),
+                          DatabaseUtil.getTotalCustomers(), DatabaseUtil.getTotalTransactions());
+    }
+
+    private static void add(Connection conn, long deposits, long withdrawals, int customers, long transactions) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ADD_SQL)) {
+            Money.bind(pstmt, 1, deposits);
+            Money.bind(pstmt, 2, withdrawals);
+            pstmt.setInt(3, customers);
+            pstmt.setLong(4, transactions);
+            pstmt.setInt(5, ThreadLocalRandom.current().nextInt(SLOTS));
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Looks the table up once, on the caller's connection; nothing is created or
+    // recomputed here, since writers call this inside their own DB transaction.
+    private static boolean isAvailable(Connection conn) throws SQLException {
+        Boolean ready = available;
+        if (ready == null) {
+            try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, TABLE, null)) {
+                ready = rs.next();
+            }
+            if (!ready) {
+                System.err.println("Dashboard aggregates disabled: " + TABLE + " is missing, run SchemaMigrations");
+            }
+            available = ready;
+        }
+        return ready;
+    }
+
+    // The subset of accountIDs that exist and are active, as the dashboard scans see them.
+    // Locks the account rows until the caller commits, in ID order so concurrent callers
+    // cannot deadlock, so a concurrent disable cannot change the answer before then.
+    private static Set<String> activeAccounts(Connection conn, List<String> accountIDs) throws SQLException {
+        List<String> distinct = new ArrayList<>(new TreeSet<>(accountIDs));
+        String in = String.join(", ", Collections.nCopies(distinct.size(), "?"));
+        List<String> tables = AccountsMigration.readsUnified()
+            ? List.of(AccountsMigration.UNIFIED_TABLE)
+            : List.of("savings_account", "checkings_account");
+        Set<String> active = new LinkedHashSet<>();
+        for (String table : tables) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT accountID, is_active FROM " + table + " WHERE accountID IN (" + in + ") ORDER BY accountID FOR UPDATE")) {
+                for (int i = 0; i < distinct.size(); i++) {
+                    pstmt.setString(i + 1, distinct.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (rs.getBoolean(2)) {
+                            active.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        }
+        return active;
+    }
+}
@@ -1,16 +1,103 @@
 package EDP;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 public class DatabaseUtil  {
-    private static final String URL = "jdbc:mysql://localhost:3306/bank_system?zeroDateTimeBehavior=CONVERT_TO_NULL";
-    private static final String USER = "user";
-    private static final String PASSWORD = "password";
+    private static final String URL = System.getProperty("bank.db.url", "jdbc:mysql://localhost:3306/bank_system?zeroDateTimeBehavior=CONVERT_TO_NULL");
+    private static final String USER = System.getProperty("bank.db.user", "user");
+    private static final String PASSWORD = System.getProperty("bank.db.password", "password");
+
+    // Shared pool; every method below borrows from it through getConnection()
+    private static final ConnectionPool POOL = ConnectionPool.fromSystemProperties(URL, USER, PASSWORD);
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return POOL.getConnection();
+    }
+
+    // Starts a read-only transaction whose reads all see one snapshot. The caller ends
+    // it with commit(); a connection returned with it still open is rolled back.
+    static void beginSnapshot(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+        }
+    }
+
+    private static final int HISTORY_FETCH_SIZE = Integer.getInteger("bank.history.fetchSize", Integer.MIN_VALUE);
+
+    // Group-commit writer behind saveTransaction
+    private static final TransactionWriter WRITER = TransactionWriter.fromSystemProperties();
+
+    private static final List<AccountListener> ACCOUNT_LISTENERS = new CopyOnWriteArrayList<>();
+
+    public static void addAccountListener(AccountListener listener) {
+        ACCOUNT_LISTENERS.add(listener);
+    }
+
+    public static void removeAccountListener(AccountListener listener) {
+        ACCOUNT_LISTENERS.remove(listener);
+    }
+
+    // Answers searchCustomerAccounts from memory once built; kept current through the listeners
+    private static final AccountSearchIndex SEARCH_INDEX = new AccountSearchIndex();
+    static {
+        addAccountListener(SEARCH_INDEX);
+    }
+
+    public static AccountSearchIndex getSearchIndex() {
+        return SEARCH_INDEX;
+    }
+
+    // Balances folded from the transactions table; built by rebuild(), then kept current through the
+    // listeners. Off by default (-Dbank.ledger.enabled=true), so commits do not feed an unused projection.
+    static final boolean LEDGER_ENABLED = Boolean.parseBoolean(System.getProperty("bank.ledger.enabled", "false"));
+    private static final LedgerProjection LEDGER = new LedgerProjection();
+    static {
+        if (LEDGER_ENABLED) {
+            addAccountListener(LEDGER);
+        }
+    }
+
+    public static LedgerProjection getLedger() {
+        return LEDGER;
+    }
+
+    public static ConnectionPool getPool() {
+        return POOL;
+    }
+
+    public static TransactionWriter getTransactionWriter() {
+        return WRITER;
+    }
+
+    // IDs for new customers and accounts, reserved in blocks from id_sequences
+    private static final int ID_BLOCK_SIZE = Integer.getInteger("bank.ids.blockSize", 100);
+    private static final IdAllocator CUSTOMER_IDS = new IdAllocator("customer", "CU", 10, ID_BLOCK_SIZE, "customerID");
+    private static final IdAllocator ACCOUNT_IDS = new IdAllocator("account", "AC", 10, ID_BLOCK_SIZE, "accountID");
+
+    public static String nextCustomerId() {
+        try {
+            return CUSTOMER_IDS.nextId();
+        } catch (SQLException e) {
+            showError("Database Error: " + e.getMessage(), "Error");
+            return null;
+        }
+    }
+
+    public static String nextAccountId() {
+        try {
+            return ACCOUNT_IDS.nextId();
+        } catch (SQLException e) {
+            showError("Database Error: " + e.getMessage(), "Error");
+            return null;
+        }
     }
 
     // Load BankUsers from database
@@ -38,10 +125,7 @@ public class DatabaseUtil  {
             }
         }
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
     }
     return users;
 }
@@ -49,93 +133,107 @@ public class DatabaseUtil  {
 
  
  
- private static boolean isCustomerIdExists(String customerId) {
-    String sql = "SELECT COUNT(*) FROM ("
-               + "SELECT customerID FROM savings_account "
-               + "UNION ALL "
-               + "SELECT customerID FROM checkings_account"
-               + ") AS combined WHERE customerID = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, customerId);
-        ResultSet rs = pstmt.executeQuery();
-        return rs.next() && rs.getInt(1) > 0;
+    // Save CustomerAccount to database
+ public static void saveCustomerAccount(CustomerAccount account) {
+    try {
+        // New accounts get allocated IDs; no need to probe the account tables for collisions.
+        // Done before borrowing the connection, since a block refill borrows one of its own.
+        if (account.customerID == null || account.customerID.isBlank()) {
+            account.customerID = CUSTOMER_IDS.nextId();
+        }
+        if (account.accountID == null || account.accountID.isBlank()) {
+            account.accountID = ACCOUNT_IDS.nextId();
+        }
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Save Failed");
+        return;
     }
-    return false;
-}
-
-private static boolean isAccountIdExists(String accountId) {
-    String sql = "SELECT COUNT(*) FROM ("
-               + "SELECT accountID FROM savings_account "
-               + "UNION ALL "
-               + "SELECT accountID FROM checkings_account"
-               + ") AS combined WHERE accountID = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, accountId);
-        ResultSet rs = pstmt.executeQuery();
-        return rs.next() && rs.getInt(1) > 0;
+    // One row per table the current migration phase writes to, all in one transaction
+    try (Connection conn = getConnection()) {
+        conn.setAutoCommit(false);
+        try {
+            for (String tableName : AccountsMigration.writeTables(account.accountType)) {
+                insertCustomerAccount(conn, tableName, account);
+            }
+            DashboardAggregates.recordAccountCreated(conn);
+            conn.commit();
+            for (AccountListener listener : ACCOUNT_LISTENERS) {
+                listener.accountSaved(account);
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Save Failed");
     }
-    return false;
 }
 
+ private static void insertCustomerAccount(Connection conn, String tableName, CustomerAccount account) throws SQLException {
+    insertCustomerAccounts(conn, tableName, List.of(account));
+}
 
-    
-
- 
-
-    // Save CustomerAccount to database
- public static void saveCustomerAccount(CustomerAccount account) {
-    String tableName = account.accountType.equalsIgnoreCase("Savings Account") 
-                        ? "savings_account" 
-                        : "checkings_account"; // Fixed typo
-
+ // One multi-row INSERT for all the given accounts; the caller owns the transaction
+ static void insertCustomerAccounts(Connection conn, String tableName, List<CustomerAccount> accounts) throws SQLException {
+    boolean unified = tableName.equals(AccountsMigration.UNIFIED_TABLE);
+    String row = unified ? "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                         : "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"; // legacy tables have no accountType column
     String sql = "INSERT INTO " + tableName + " (customerID, accountID, firstName, middleName, lastName, " +
-            "birthDate, age, street, barangay, municipality, provinceCity, zip, phone, email, gender, balance, is_active) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"; // Removed accountType from INSERT
-
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            "birthDate, age, street, barangay, municipality, provinceCity, zip, phone, email, gender, balance, is_active" +
+            (unified ? ", account_type" : "") + ") VALUES " + String.join(", ", java.util.Collections.nCopies(accounts.size(), row));
+
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        int i = 1;
+        for (CustomerAccount account : accounts) {
+            pstmt.setString(i++, account.customerID);
+            pstmt.setString(i++, account.accountID);
+            pstmt.setString(i++, account.firstName);
+            pstmt.setString(i++, account.middleName);
+            pstmt.setString(i++, account.lastName);
+            pstmt.setDate(i++, new java.sql.Date(account.birthDate.getTime()));
+            pstmt.setInt(i++, account.age);
+            pstmt.setString(i++, account.street);
+            pstmt.setString(i++, account.barangay);
+            pstmt.setString(i++, account.municipality);
+            pstmt.setString(i++, account.provinceCity);
+            pstmt.setString(i++, account.zip);
+            pstmt.setString(i++, account.phone);
+            pstmt.setString(i++, account.email);
+            pstmt.setString(i++, account.gender);
+            Money.bind(pstmt, i++, account.balance);
+            pstmt.setBoolean(i++, account.is_active);
+            if (unified) {
+                pstmt.setString(i++, account.accountType);
+            }
+        }
+        pstmt.executeUpdate();
+    }
+}
 
-        pstmt.setString(1, account.customerID);
-        pstmt.setString(2, account.accountID);
-        pstmt.setString(3, account.firstName);
-        pstmt.setString(4, account.middleName);
-        pstmt.setString(5, account.lastName);
-        pstmt.setDate(6, new java.sql.Date(account.birthDate.getTime()));
-        pstmt.setInt(7, account.age);
-        pstmt.setString(8, account.street);
-        pstmt.setString(9, account.barangay);
-        pstmt.setString(10, account.municipality);
-        pstmt.setString(11, account.provinceCity);
-        pstmt.setString(12, account.zip);
-        pstmt.setString(13, account.phone);
-        pstmt.setString(14, account.email);
-        pstmt.setString(15, account.gender);
-        pstmt.setDouble(16, account.balance);
-        pstmt.setBoolean(17, account.is_active);
+ // Tells the registry, search index and other listeners about accounts committed outside saveCustomerAccount
+ static void fireAccountsSaved(List<CustomerAccount> accounts) {
+    for (CustomerAccount account : accounts) {
+        for (AccountListener listener : ACCOUNT_LISTENERS) {
+            listener.accountSaved(account);
+        }
+    }
+}
 
-        pstmt.executeUpdate();
-    } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null,
-                "Database Error: " + e.getMessage(),
-                "Save Failed",
-                JOptionPane.ERROR_MESSAGE);
+ // Call after the commit that stored the transactions; accountIds.get(i) is the account of transactions.get(i)
+ static void fireTransactionsPosted(List<String> accountIds, List<Transaction> transactions) {
+    for (AccountListener listener : ACCOUNT_LISTENERS) {
+        listener.transactionsPosted(accountIds, transactions);
     }
 }
   
  public static CustomerAccount getCustomerAccount(String accountId) {
-    String sql = "(SELECT *, 'Savings Account' AS accountType FROM savings_account WHERE BINARY accountID = ?) " +
+    // Unified layout: a primary-key seek, then a customerID index seek, instead of four BINARY scans
+    String sql = AccountsMigration.readsUnified()
+               ? "(SELECT a.*, a.account_type AS accountType, 0 AS matchOrder FROM accounts a WHERE a.accountID = ?) " +
+                 "UNION ALL " +
+                 "(SELECT a.*, a.account_type AS accountType, 1 AS matchOrder FROM accounts a WHERE a.customerID = ? LIMIT 1) " +
+                 "ORDER BY matchOrder LIMIT 1"
+               : "(SELECT *, 'Savings Account' AS accountType FROM savings_account WHERE BINARY accountID = ?) " +
                  "UNION ALL " +
                  "(SELECT *, 'Checking Account' AS accountType FROM checkings_account WHERE BINARY accountID = ?) " +
                  "UNION ALL " +
@@ -148,8 +246,10 @@ private static boolean isAccountIdExists(String accountId) {
         
         pstmt.setString(1, accountId);
         pstmt.setString(2, accountId);
-        pstmt.setString(3, accountId);
-         pstmt.setString(4, accountId);
+        if (!AccountsMigration.readsUnified()) {
+            pstmt.setString(3, accountId);
+            pstmt.setString(4, accountId);
+        }
 
         try (ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) {
@@ -169,45 +269,72 @@ private static boolean isAccountIdExists(String accountId) {
                     rs.getString("email"),
                     rs.getString("gender"),
                     rs.getString("accountType"),
-                    rs.getDouble("balance"),
+                    Money.read(rs, "balance"),
                     rs.getBoolean("is_active")
                 );
             }
         }
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
     }
     return null;
 }
   
  static boolean disableAccount(String accountID) {
-        String sqlSavings = "UPDATE savings_account SET is_active = false WHERE accountID = ?";
-        String sqlCheckings = "UPDATE checkings_account SET is_active = false WHERE accountID = ?";
+        if (AccountsMigration.PHASE == AccountsMigration.Phase.ACCOUNTS_ONLY) {
+            return disableAccount(accountID, List.of(AccountsMigration.UNIFIED_TABLE));
+        }
+        if (AccountsMigration.PHASE == AccountsMigration.Phase.LEGACY) {
+            return disableAccount(accountID, List.of("savings_account", "checkings_account"));
+        }
+        return disableAccount(accountID, List.of("savings_account", "checkings_account", AccountsMigration.UNIFIED_TABLE));
+    }
+
+ private static boolean disableAccount(String accountID, List<String> tables) {
         int affectedRows = 0;
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt1 = conn.prepareStatement(sqlSavings);
-             PreparedStatement pstmt2 = conn.prepareStatement(sqlCheckings)) {
-            pstmt1.setString(1, accountID);
-            affectedRows += pstmt1.executeUpdate();
-            pstmt2.setString(1, accountID);
-            affectedRows += pstmt2.executeUpdate();
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                DashboardAggregates.recordAccountDisabled(conn, accountID);
+                for (String table : tables) {
+                    try (PreparedStatement pstmt = conn.prepareStatement("UPDATE " + table + " SET is_active = false WHERE accountID = ?")) {
+                        pstmt.setString(1, accountID);
+                        affectedRows += pstmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            if (affectedRows > 0) {
+                for (AccountListener listener : ACCOUNT_LISTENERS) {
+                    listener.accountDisabled(accountID);
+                }
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
-            JOptionPane.showMessageDialog(null, 
-                "Database Error: " + e.getMessage(), 
-                "Disable Account Failed", 
-                JOptionPane.ERROR_MESSAGE);
+            showError("Database Error: " + e.getMessage(), "Disable Account Failed");
             return false;
         }
     }
   
   
   public static List<CustomerAccount> loadCustomerAccounts() {
+    try {
+        return readCustomerAccounts();
+    } catch (SQLException e) {
+        showError("Database Error: " + e.getMessage(), "Error");
+        return new ArrayList<>();
+    }
+}
+
+  // Same as loadCustomerAccounts, but a failed read throws instead of looking like no accounts
+  static List<CustomerAccount> readCustomerAccounts() throws SQLException {
     List<CustomerAccount> accounts = new ArrayList<>();
-    String sql = "SELECT s.*, 'Savings Account' AS accountType FROM savings_account s " +
+    String sql = AccountsMigration.readsUnified()
+               ? "SELECT a.*, a.account_type AS accountType FROM accounts a"
+               : "SELECT s.*, 'Savings Account' AS accountType FROM savings_account s " +
                  "UNION ALL " +
                  "SELECT c.*, 'Checking Account' AS accountType FROM checkings_account c";
     try (Connection conn = getConnection();
@@ -230,16 +357,11 @@ private static boolean isAccountIdExists(String accountId) {
                 rs.getString("email"),
                 rs.getString("gender"),
                 rs.getString("accountType"),
-                rs.getDouble("balance"),
+                Money.read(rs, "balance"),
                 rs.getBoolean("is_active")
             );
             accounts.add(acc);
         }
-    } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
     }
     return accounts;
 }
@@ -247,8 +369,21 @@ private static boolean isAccountIdExists(String accountId) {
   
   
 public static List<CustomerAccount> searchCustomerAccounts(String query) {
+    return searchCustomerAccounts(query, Integer.MAX_VALUE);
+}
+
+// At most limit matches; used by the typeahead, which only shows the top few
+public static List<CustomerAccount> searchCustomerAccounts(String query, int limit) {
+    if (SEARCH_INDEX.isWarm()) {
+        return SEARCH_INDEX.search(query, limit);
+    }
     List<CustomerAccount> results = new ArrayList<>();
-    String sql = "SELECT * FROM (" +
+    int params = AccountsMigration.readsUnified() ? 4 : 8;
+    String sql = AccountsMigration.readsUnified()
+          ? "SELECT a.*, a.account_type AS accountType FROM accounts a " +
+            "WHERE (LOWER(a.customerID) LIKE LOWER(?) OR LOWER(a.accountID) LIKE LOWER(?) OR " +
+            "LOWER(CONCAT(a.firstName, ' ', a.lastName)) LIKE LOWER(?) OR LOWER(a.email) LIKE LOWER(?))"
+          : "SELECT * FROM (" +
             "SELECT s.*, 'Savings Account' AS accountType FROM savings_account s " +
             "WHERE (LOWER(s.customerID) LIKE LOWER(?) OR LOWER(s.accountID) LIKE LOWER(?) OR " +
             "LOWER(CONCAT(s.firstName, ' ', s.lastName)) LIKE LOWER(?) OR LOWER(s.email) LIKE LOWER(?)) " +
@@ -257,14 +392,16 @@ public static List<CustomerAccount> searchCustomerAccounts(String query) {
             "WHERE (LOWER(c.customerID) LIKE LOWER(?) OR LOWER(c.accountID) LIKE LOWER(?) OR " +
             "LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE LOWER(?) OR LOWER(c.email) LIKE LOWER(?))" +
             ") AS combined";
+    sql += " LIMIT ?";
 
     try (Connection conn = getConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
         String likeQuery = "%" + query.toLowerCase() + "%";
-        for (int i = 1; i <= 8; i++) {
+        for (int i = 1; i <= params; i++) {
             pstmt.setString(i, likeQuery);
         }
+        pstmt.setInt(params + 1, limit);
 
         try (ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
@@ -284,17 +421,14 @@ public static List<CustomerAccount> searchCustomerAccounts(String query) {
                         rs.getString("email"),
                         rs.getString("gender"),
                         rs.getString("accountType"),
-                        rs.getDouble("balance"),
+                        Money.read(rs, "balance"),
                         rs.getBoolean("is_active")
                 );
                 results.add(acc);
             }
         }
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
     }
     return results;
 }
@@ -313,61 +447,181 @@ public static List<Transaction> getTransactions(String accountId) {
             while (rs.next()) {
                 Transaction t = new Transaction(
                     rs.getString("type"),
-                    rs.getDouble("amount"),
-                    rs.getDouble("balanceAfter"),
+                    Money.read(rs, "amount"),
+                    Money.read(rs, "balanceAfter"),
                     rs.getTimestamp("date")
                 );
                 transactions.add(t);
             }
         }
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
+    }
+    return transactions;
+}
+
+// One page of history, newest first, strictly older than (beforeDate, beforeId).
+// Pass null for beforeDate to get the first page. Keyset pagination: every page is an
+// index range seek on transactions(accountID, date, transactionID), however deep it goes.
+// That index comes from SchemaMigrations; the row comparison keeps the seek a single range.
+// A failed read throws: an empty page would tell the caller the history has ended.
+public static List<Transaction> getTransactionsPage(String accountId, Date beforeDate, String beforeId, int pageSize) throws SQLException {
+    List<Transaction> transactions = new ArrayList<>(pageSize);
+    String sql = beforeDate == null
+        ? "SELECT transactionID, type, amount, balanceAfter, date FROM transactions " +
+          "WHERE accountID = ? ORDER BY date DESC, transactionID DESC LIMIT ?"
+        : "SELECT transactionID, type, amount, balanceAfter, date FROM transactions " +
+          "WHERE accountID = ? AND (date, transactionID) < (?, ?) " +
+          "ORDER BY date DESC, transactionID DESC LIMIT ?";
+
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+        pstmt.setString(1, accountId);
+        if (beforeDate == null) {
+            pstmt.setInt(2, pageSize);
+        } else {
+            pstmt.setTimestamp(2, new Timestamp(beforeDate.getTime()));
+            pstmt.setString(3, beforeId);
+            pstmt.setInt(4, pageSize);
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                transactions.add(readTransaction(rs));
+            }
+        }
     }
     return transactions;
 }
+
+// Streams the whole history, oldest first, to sink without materializing it.
+// The default fetch size (Integer.MIN_VALUE) puts MySQL Connector/J into row streaming;
+// -Dbank.history.fetchSize overrides it, e.g. with useCursorFetch=true or another driver.
+// Returns the number of rows streamed.
+public static long streamTransactions(String accountId, Consumer<Transaction> sink) throws SQLException {
+    return streamTransactions(accountId, null, null, sink);
+}
+
+// Same, limited to from <= date < to; either bound may be null.
+public static long streamTransactions(String accountId, Date from, Date to, Consumer<Transaction> sink) throws SQLException {
+    String sql = "SELECT transactionID, type, amount, balanceAfter, date FROM transactions " +
+                 "WHERE accountID = ?" +
+                 (from != null ? " AND date >= ?" : "") +
+                 (to != null ? " AND date < ?" : "") +
+                 " ORDER BY date, transactionID";
+    long rows = 0;
+    // Not the cached prepareStatement(String): fetch size is per statement state
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        pstmt.setFetchSize(HISTORY_FETCH_SIZE);
+        int index = 1;
+        pstmt.setString(index++, accountId);
+        if (from != null) {
+            pstmt.setTimestamp(index++, new java.sql.Timestamp(from.getTime()));
+        }
+        if (to != null) {
+            pstmt.setTimestamp(index++, new java.sql.Timestamp(to.getTime()));
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                sink.accept(readTransaction(rs));
+                rows++;
+            }
+        }
+    }
+    return rows;
+}
+
+// Balance after the last transaction strictly before the given date, or null if there was none
+public static Long getBalanceBefore(String accountId, Date date) throws SQLException {
+    String sql = "SELECT balanceAfter FROM transactions WHERE accountID = ? AND date < ? " +
+                 "ORDER BY date DESC, transactionID DESC LIMIT 1";
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, accountId);
+        pstmt.setTimestamp(2, new java.sql.Timestamp(date.getTime()));
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? Money.read(rs, 1) : null;
+        }
+    }
+}
+
+// Balance just before the first transaction at or after the given date (its balanceAfter
+// less its own signed amount), or null if there was none
+public static Long getBalanceBeforeFirstFrom(String accountId, Date date) throws SQLException {
+    String sql = "SELECT balanceAfter - " + BalanceCheckpoints.SIGNED_AMOUNT_SQL + " FROM transactions " +
+                 "WHERE accountID = ? AND date >= ? ORDER BY date, transactionID LIMIT 1";
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, accountId);
+        pstmt.setTimestamp(2, new java.sql.Timestamp(date.getTime()));
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? Money.read(rs, 1) : null;
+        }
+    }
+}
+
+private static Transaction readTransaction(ResultSet rs) throws SQLException {
+    return new Transaction(
+        rs.getString("transactionID"),
+        rs.getString("type"),
+        Money.read(rs, "amount"),
+        Money.read(rs, "balanceAfter"),
+        rs.getTimestamp("date")
+    );
+}
   
     
 public static boolean deleteCustomerAccount(String accountId) {
     // 1. Reuse the search logic to validate the account exists
     CustomerAccount account = getCustomerAccount(accountId);
     if (account == null) {
-        JOptionPane.showMessageDialog(null, "Account not found.", "Error", JOptionPane.ERROR_MESSAGE);
+        showError("Account not found.", "Error");
         return false;
     }
 
     // 2. Check for transactions (if needed)
     if (hasTransactions(accountId)) {
-        JOptionPane.showMessageDialog(null, 
-            "Account has transactions. Cannot delete!", 
-            "Error", JOptionPane.ERROR_MESSAGE);
+        showError("Account has transactions. Cannot delete!", "Error");
         return false;
     }
 
-    // 3. Delete from the correct table
-    String tableName = account.accountType.equalsIgnoreCase("Savings Account") 
-                       ? "savings_account" 
-                       : "checkings_account";
-
-    String sql = "DELETE FROM " + tableName + " WHERE accountID = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, accountId);
-        int affectedRows = pstmt.executeUpdate();
+    // 3. Delete from every table the current migration phase writes to
+    int affectedRows = 0;
+    try (Connection conn = getConnection()) {
+        conn.setAutoCommit(false);
+        try {
+            for (String tableName : AccountsMigration.writeTables(account.accountType)) {
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + tableName + " WHERE accountID = ?")) {
+                    pstmt.setString(1, accountId);
+                    affectedRows += pstmt.executeUpdate();
+                }
+            }
+            if (affectedRows > 0) {
+                DashboardAggregates.recordAccountDeleted(conn);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+        if (affectedRows > 0) {
+            for (AccountListener listener : ACCOUNT_LISTENERS) {
+                listener.accountDeleted(accountId);
+            }
+        }
         return affectedRows > 0;
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
         return false;
     }
 }
 
 public static int getTotalCustomers() {
       
-    String sql = "SELECT (SELECT COUNT(*) FROM savings_account) + " +
+    String sql = AccountsMigration.readsUnified()
+               ? "SELECT COUNT(*) AS total FROM accounts"
+               : "SELECT (SELECT COUNT(*) FROM savings_account) + " +
                 "(SELECT COUNT(*) FROM checkings_account) AS total";
   
     try (Connection conn = getConnection();
@@ -375,16 +629,16 @@ public static int getTotalCustomers() {
          ResultSet rs = stmt.executeQuery(sql)) {
         return rs.next() ? rs.getInt("total") : 0;
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
         return 0;
     }
 }
-public static double getTotalDeposits() {
-    String sql = 
-        "SELECT SUM(t.amount) FROM transactions t " +
+public static long getTotalDeposits() {
+    String sql = AccountsMigration.readsUnified()
+      ? "SELECT SUM(t.amount) FROM transactions t " +
+        "JOIN accounts a ON t.accountID = a.accountID " +
+        "WHERE a.is_active = 1 AND t.type = 'Deposit'"
+      : "SELECT SUM(t.amount) FROM transactions t " +
         "JOIN (" +
         "  SELECT accountID FROM savings_account WHERE is_active = 1" +
         "  UNION " +
@@ -395,18 +649,18 @@ public static double getTotalDeposits() {
     try (Connection conn = getConnection();
          Statement stmt = conn.createStatement();
          ResultSet rs = stmt.executeQuery(sql)) {
-        return rs.next() ? rs.getDouble(1) : 0.0;
+        return rs.next() ? Money.read(rs, 1) : Money.ZERO;
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
-        return 0.0;
+        showError("Database Error: " + e.getMessage(), "Error");
+        return Money.ZERO;
     }
 }
-public static double getTotalWithdrawals() {
-    String sql = 
-        "SELECT SUM(t.amount) FROM transactions t " +
+public static long getTotalWithdrawals() {
+    String sql = AccountsMigration.readsUnified()
+      ? "SELECT SUM(t.amount) FROM transactions t " +
+        "JOIN accounts a ON t.accountID = a.accountID " +
+        "WHERE a.is_active = true AND t.type = 'Withdrawal'"
+      : "SELECT SUM(t.amount) FROM transactions t " +
         "JOIN (" +
         "  SELECT accountID FROM savings_account WHERE is_active = true " +
         "  UNION " +
@@ -417,13 +671,10 @@ public static double getTotalWithdrawals() {
     try (Connection conn = getConnection();
          Statement stmt = conn.createStatement();
          ResultSet rs = stmt.executeQuery(sql)) {
-        return rs.next() ? rs.getDouble(1) : 0.0;
+        return rs.next() ? Money.read(rs, 1) : Money.ZERO;
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
-        return 0.0;
+        showError("Database Error: " + e.getMessage(), "Error");
+        return Money.ZERO;
     }
 }
 
@@ -435,10 +686,7 @@ public static int getTotalTransactions() {
          ResultSet rs = stmt.executeQuery(sql)) {
         return rs.next() ? rs.getInt(1) : 0;
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
         return 0;
     }
 }
@@ -446,63 +694,139 @@ public static int getTotalTransactions() {
 
     // Update BankUser status
   public static boolean updateCustomerAccount(CustomerAccount account) {
-    String tableName = account.accountType.equalsIgnoreCase("Savings Account") 
-                        ? "savings_account" 
-                        : "checkings_account";
-
-    String sql = "UPDATE " + tableName + " SET firstName=?, middleName=?, lastName=?, street=?, barangay=?, " +
-                 "municipality=?, provinceCity=?, zip=?, phone=?, email=?, gender=?, balance=? WHERE accountID=?";
-
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-        pstmt.setString(1, account.firstName);
-        pstmt.setString(2, account.middleName);
-        pstmt.setString(3, account.lastName);
-        pstmt.setString(4, account.street);
-        pstmt.setString(5, account.barangay);
-        pstmt.setString(6, account.municipality);
-        pstmt.setString(7, account.provinceCity);
-        pstmt.setString(8, account.zip);
-        pstmt.setString(9, account.phone);
-        pstmt.setString(10, account.email);
-        pstmt.setString(11, account.gender);
-        pstmt.setDouble(12, account.balance);
-        pstmt.setString(13, account.accountID);
-
-        int affectedRows = pstmt.executeUpdate();
-        return affectedRows > 0;
+    List<String> tables = AccountsMigration.writeTables(account.accountType);
+
+    try (Connection conn = getConnection()) {
+        conn.setAutoCommit(false);
+        int primaryRows = 0;
+        try {
+            for (String tableName : tables) {
+                // Profile fields only: the balance moves solely through postTransaction's
+                // relative update, so a stale in-memory copy cannot overwrite it here.
+                String sql = "UPDATE " + tableName + " SET firstName=?, middleName=?, lastName=?, street=?, barangay=?, " +
+                             "municipality=?, provinceCity=?, zip=?, phone=?, email=?, gender=? WHERE accountID=?";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, account.firstName);
+                    pstmt.setString(2, account.middleName);
+                    pstmt.setString(3, account.lastName);
+                    pstmt.setString(4, account.street);
+                    pstmt.setString(5, account.barangay);
+                    pstmt.setString(6, account.municipality);
+                    pstmt.setString(7, account.provinceCity);
+                    pstmt.setString(8, account.zip);
+                    pstmt.setString(9, account.phone);
+                    pstmt.setString(10, account.email);
+                    pstmt.setString(11, account.gender);
+                    pstmt.setString(12, account.accountID);
+
+                    int affectedRows = pstmt.executeUpdate();
+                    if (tableName.equals(AccountsMigration.primaryTable(account.accountType))) {
+                        primaryRows = affectedRows;
+                    }
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+        if (primaryRows > 0) {
+            for (AccountListener listener : ACCOUNT_LISTENERS) {
+                listener.accountUpdated(account);
+            }
+        }
+        return primaryRows > 0;
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Update Failed", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Update Failed");
         return false;
     }
 }
    
-    public static void saveTransaction(Transaction transaction, String accountID) {
-    String sql = "INSERT INTO transactions (transactionID, accountID, type, amount, balanceAfter, date) VALUES (?, ?, ?, ?, ?, ?)";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    // Queued for the background group-commit writer; the returned future completes
+    // once the row is committed. Failures are still reported to the user.
+    public static CompletableFuture<Void> saveTransaction(Transaction transaction, String accountID) {
+    CompletableFuture<Void> saved = WRITER.submit(transaction, accountID);
+    saved.whenComplete((ignored, e) -> {
+        if (e != null) {
+            showError("Database Error: " + e.getMessage(), "Error");
+        }
+    });
+    return saved;
+}
 
-        pstmt.setString(1, transaction.transactionID);
-        pstmt.setString(2, accountID);
-        pstmt.setString(3, transaction.type);
-        pstmt.setDouble(4, transaction.amount);
-        pstmt.setDouble(5, transaction.balanceAfter);
-        pstmt.setTimestamp(6, new java.sql.Timestamp(transaction.date.getTime()));
+    // Deposit/withdrawal as one DB transaction on one connection: a relative balance
+    // update that refuses to overdraw, then the transaction row with the committed balance.
+    // delta is signed (+ deposit, - withdrawal). Returns the saved Transaction, whose
+    // balanceAfter is the authoritative new balance, or null if nothing was posted.
+    public static Transaction postTransaction(CustomerAccount account, String type, long delta) {
+    String primary = AccountsMigration.primaryTable(account.accountType);
+    String updateSql = "UPDATE " + primary + " SET balance = balance + ? " +
+                       "WHERE accountID = ? AND is_active = true AND balance + ? >= 0";
+    String balanceSql = "SELECT balance FROM " + primary + " WHERE accountID = ?";
+    String insertSql = "INSERT INTO transactions (transactionID, accountID, type, amount, balanceAfter, date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    try (Connection conn = getConnection()) {
+        conn.setAutoCommit(false);
+        try (PreparedStatement update = conn.prepareStatement(updateSql);
+             PreparedStatement select = conn.prepareStatement(balanceSql);
+             PreparedStatement insert = conn.prepareStatement(insertSql)) {
+
+            Money.bind(update, 1, delta);
+            update.setString(2, account.accountID);
+            Money.bind(update, 3, delta);
+            if (update.executeUpdate() == 0) {
+                conn.rollback();
+                showError(delta < 0 ? "Insufficient funds!" : "Account not found or inactive.", "Error");
+                return null;
+            }
+            // Same relative change on the other layout while both are written
+            for (String table : AccountsMigration.writeTables(account.accountType)) {
+                if (!table.equals(primary)) {
+                    try (PreparedStatement mirror = conn.prepareStatement("UPDATE " + table + " SET balance = balance + ? WHERE accountID = ?")) {
+                        Money.bind(mirror, 1, delta);
+                        mirror.setString(2, account.accountID);
+                        mirror.executeUpdate();
+                    }
+                }
+            }
 
-        pstmt.executeUpdate();
+            // Row is locked by the UPDATE until commit, so this is the balance we just wrote
+            select.setString(1, account.accountID);
+            long newBalance;
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                newBalance = Money.read(rs, 1);
+            }
+
+            Transaction transaction = new Transaction(type, Math.abs(delta), newBalance);
+            insert.setString(1, transaction.transactionID);
+            insert.setString(2, account.accountID);
+            insert.setString(3, transaction.type);
+            Money.bind(insert, 4, transaction.amount);
+            Money.bind(insert, 5, transaction.balanceAfter);
+            insert.setTimestamp(6, new java.sql.Timestamp(transaction.date.getTime()));
+            insert.executeUpdate();
+            DashboardAggregates.recordTransactions(conn, List.of(account.accountID), List.of(transaction));
+            BalanceCheckpoints.record(conn, List.of(account.accountID), List.of(transaction));
+
+            conn.commit();
+            fireTransactionsPosted(List.of(account.accountID), List.of(transaction));
+            return transaction;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Transaction Failed");
+        return null;
     }
 }
 
     static boolean hasTransactions(String accountID) {
+    // A ledger entry means a committed row; no entry may only mean the projection missed one, so ask SQL
+    if (LEDGER_ENABLED && LEDGER.isReady() && LEDGER.get(accountID) != null) {
+        return true;
+    }
     String sql = "SELECT COUNT(*) FROM transactions WHERE accountID = ?";
     try (Connection conn = getConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -511,12 +835,17 @@ public static int getTotalTransactions() {
         ResultSet rs = pstmt.executeQuery();
         return rs.next() && rs.getInt(1) > 0;
     } catch (SQLException e) {
-        JOptionPane.showMessageDialog(null, 
-            "Database Error: " + e.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
+        showError("Database Error: " + e.getMessage(), "Error");
         return false;
     }
 }
-}
 
+    // Error dialogs must be shown on the EDT; DatabaseUtil is also called from background threads
+    private static void showError(String message, String title) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE);
+        } else {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE));
+        }
+    }
+}
@@ -23,7 +23,7 @@ public class ITRUSTCustomerAcc {
     public String email;
     public String sex;
     public String accountType;
-    public double balance;
+    public long balance; // centavos, see Money
     public int transactionCount;
     public Date lastTransactionDate;
     public Date lastInterestFeeApplicationDate;
@@ -33,7 +33,7 @@ public class ITRUSTCustomerAcc {
                       String middleName, String lastName, Date birthDate,
                       String street, String barangay, String municipality,
                       String provinceCity, String zip, String phone,
-                      String email, String gender, String accountType, double initialDeposit, boolean is_active) {
+                      String email, String gender, String accountType, long initialDeposit, boolean is_active) {
         this.feeCycleCounter = 0;
         this.customerID = customerID;
         this.accountID = accountID;
@@ -0,0 +1,134 @@
+package EDP;
+
+import java.sql.*;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands out IDs from a DB-backed sequence without a round trip per ID. Each instance
+// reserves a block of blockSize numbers with one atomic UPDATE on id_sequences and then
+// serves them from memory. Blocks never overlap, so several app instances can allocate
+// at once without existence checks; numbers left in a block at shutdown are skipped.
+// A sequence starts after the highest prefix + digits ID already in idColumn of the
+// account tables, so IDs issued before the sequence existed are never handed out again.
+// SchemaMigrations creates id_sequences.
+public class IdAllocator {
+    private static final String CREATE_SQL =
+        "CREATE TABLE IF NOT EXISTS id_sequences (" +
+        "  name VARCHAR(32) NOT NULL PRIMARY KEY," +
+        "  next_value BIGINT NOT NULL" +
+        ")";
+
+    // LAST_INSERT_ID(expr) hands the new value back on this connection with no second lookup
+    private static final String RESERVE_SQL =
+        "UPDATE id_sequences SET next_value = LAST_INSERT_ID(next_value + ?) WHERE name = ?";
+
+    private final String sequence;
+    private final String prefix;
+    private final int digits;
+    private final int blockSize;
+    private final String idColumn;
+    private volatile Block block = new Block(0, 0);
+
+    public IdAllocator(String sequence, String prefix, int digits, int blockSize, String idColumn) {
+        this.sequence = sequence;
+        this.prefix = prefix;
+        this.digits = digits;
+        this.blockSize = blockSize;
+        this.idColumn = idColumn;
+    }
+
+    // prefix + zero-padded number, e.g. "CU0000001234"
+    public String nextId() throws SQLException {
+        long value = next();
+        String number = Long.toString(value);
+        if (number.length() >= digits) {
+            return prefix + number;
+        }
+        return prefix + "0".repeat(digits - number.length()) + number;
+    }
+
+    public long next() throws SQLException {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return value;
+            }
+            synchronized (this) {
+                // Another thread may have refilled while we waited for the lock
+                if (block == current) {
+                    block = reserve();
+                }
+            }
+        }
+    }
+
+    private Block reserve() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            // Its own short transaction, so the sequence row lock is never held by account work
+            conn.setAutoCommit(true);
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try (PreparedStatement update = conn.prepareStatement(RESERVE_SQL)) {
+                    update.setInt(1, blockSize);
+                    update.setString(2, sequence);
+                    if (update.executeUpdate() == 1) {
+                        try (Statement stmt = conn.createStatement();
+                             ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+                            rs.next();
+                            long end = rs.getLong(1);
+                            return new Block(end - blockSize, end);
+                        }
+                    }
+                }
+                // First use of this sequence; whichever instance gets here first creates the row
+                try (PreparedStatement insert = conn.prepareStatement(
+                        "INSERT IGNORE INTO id_sequences (name, next_value) VALUES (?, ?)")) {
+                    insert.setString(1, sequence);
+                    insert.setLong(2, highestExisting(conn) + 1);
+                    insert.executeUpdate();
+                }
+            }
+        }
+        throw new SQLException("Could not reserve a block from sequence " + sequence);
+    }
+
+    // Highest number among existing IDs of the form prefix + digits, 0 if there are none
+    private long highestExisting(Connection conn) throws SQLException {
+        Set<String> tables = new LinkedHashSet<>(AccountsMigration.writeTables("Savings Account"));
+        tables.addAll(AccountsMigration.writeTables("Checking Account"));
+        long highest = 0;
+        for (String table : tables) {
+            String sql = "SELECT MAX(CAST(SUBSTRING(" + idColumn + ", " + (prefix.length() + 1) + ") AS UNSIGNED)) " +
+                         "FROM " + table + " WHERE " + idColumn + " REGEXP ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, "^" + prefix + "[0-9]+$");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        highest = Math.max(highest, rs.getLong(1));
+                    }
+                }
+            }
+        }
+        return highest;
+    }
+
+    // Creates the sequence table; rows are added on first use. Run from SchemaMigrations.
+    static void migrate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_SQL);
+        }
+    }
+
+    // [next, end) still unused in the current reservation
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
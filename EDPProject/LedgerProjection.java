@@ -0,0 +1,346 @@
+package EDP;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory ledger derived only from the transactions table: per account, the opening
+// balance plus the signed sum of its transactions, with counts and credit/debit totals.
+// Opening deposits have no row of their own, so the opening balance is taken from the
+// earliest row as its balanceAfter less its own amount. rebuild() streams the table in
+// accountID ranges, one range per worker, each folding into its own map with no shared
+// state; the maps are then swapped in at once. After that the projection follows new
+// commits through AccountListener.transactionsPosted, so balance reads need no query.
+// Because it ignores the stored balance columns, comparing the two (driftReport) shows
+// where those columns have gone wrong.
+public class LedgerProjection implements AccountListener {
+    public static final class Balance {
+        public final String accountId;
+        public final long opening;      // centavos, before the earliest transaction
+        public final long balance;      // centavos
+        public final long credits;      // centavos
+        public final long debits;       // centavos
+        public final long transactions;
+        public final Date lastActivity;
+
+        Balance(String accountId, long opening, long balance, long credits, long debits, long transactions, Date lastActivity) {
+            this.accountId = accountId;
+            this.opening = opening;
+            this.balance = balance;
+            this.credits = credits;
+            this.debits = debits;
+            this.transactions = transactions;
+            this.lastActivity = lastActivity;
+        }
+    }
+
+    // One account's running fold; synchronized because live events for an account can
+    // come from several writer threads
+    private static final class Ledger {
+        final String accountId;
+        long opening;
+        long credits;
+        long debits;
+        long transactions;
+        long lastActivity;
+        // Earliest row applied so far, in (date, transactionID) order; rows may arrive out of order
+        long firstDate;
+        String firstId;
+
+        Ledger(String accountId) {
+            this.accountId = accountId;
+        }
+
+        synchronized void apply(Transaction t) {
+            long signed;
+            if (BalanceCheckpoints.isDebit(t.type)) {
+                debits = Money.add(debits, t.amount);
+                signed = Money.negate(t.amount);
+            } else {
+                credits = Money.add(credits, t.amount);
+                signed = t.amount;
+            }
+            transactions++;
+            long date = t.date.getTime();
+            lastActivity = Math.max(lastActivity, date);
+            if (firstId == null || date < firstDate || (date == firstDate && t.transactionID.compareTo(firstId) < 0)) {
+                firstDate = date;
+                firstId = t.transactionID;
+                opening = Money.subtract(t.balanceAfter, signed);
+            }
+        }
+
+        synchronized Balance snapshot() {
+            return new Balance(accountId, opening, Money.add(opening, Money.subtract(credits, debits)), credits, debits,
+                               transactions, transactions == 0 ? null : new Date(lastActivity));
+        }
+    }
+
+    // Live events seen while a rebuild runs, by transactionID. At the swap, events whose
+    // rows the rebuild did not see are applied to the new maps.
+    private static final class RebuildState {
+        final Map<String, Posted> live = new ConcurrentHashMap<>();
+    }
+
+    // One accountID range of a rebuild. Its connection stays in the read-only snapshot
+    // the range was scanned in until the swap, which asks it which live rows it saw.
+    private static final class Partition {
+        final String from;
+        final String to;
+        final boolean last;
+        Connection conn;
+        long rows;
+
+        Partition(String from, String to, boolean last) {
+            this.from = from;
+            this.to = to;
+            this.last = last;
+        }
+
+        boolean covers(String accountId) {
+            return accountId.compareTo(from) >= 0 && (last ? accountId.compareTo(to) <= 0 : accountId.compareTo(to) < 0);
+        }
+    }
+
+    private record Posted(String accountId, Transaction transaction) {
+    }
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<String, Ledger> ledgers = new ConcurrentHashMap<>();
+    private volatile RebuildState rebuilding = null;
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // null if the account has no transactions (or the projection is not built yet)
+    public Balance get(String accountId) {
+        Ledger ledger = ledgers.get(accountId);
+        return ledger == null ? null : ledger.snapshot();
+    }
+
+    public long balanceOf(String accountId) {
+        Balance b = get(accountId);
+        return b == null ? Money.ZERO : b.balance;
+    }
+
+    public int size() {
+        return ledgers.size();
+    }
+
+    @Override
+    public void transactionsPosted(List<String> accountIds, List<Transaction> transactions) {
+        swapLock.readLock().lock();
+        try {
+            RebuildState state = rebuilding;
+            Map<String, Ledger> current = ledgers;
+            for (int i = 0; i < transactions.size(); i++) {
+                Transaction t = transactions.get(i);
+                if (state != null) {
+                    state.live.put(t.transactionID, new Posted(accountIds.get(i), t));
+                }
+                current.computeIfAbsent(accountIds.get(i), Ledger::new).apply(t);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Replays the whole transactions table. Each worker holds one pooled connection
+    // from its scan until the swap, so keep parallelism below bank.pool.maxSize.
+    // A row committed during the rebuild (a journal replay can commit rows dated long
+    // before it) may be both scanned and posted live; its partition's snapshot decides
+    // which, so it is counted once.
+    public synchronized void rebuild(int parallelism) throws SQLException {
+        long start = System.nanoTime();
+        RebuildState state = new RebuildState();
+        rebuilding = state;
+        List<Partition> partitions = new ArrayList<>();
+        try {
+            List<String> bounds = partitionBounds(parallelism);
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                partitions.add(new Partition(bounds.get(i), bounds.get(i + 1), i + 2 == bounds.size()));
+            }
+            ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, partitions.size()));
+            Map<String, Ledger> rebuilt = new ConcurrentHashMap<>();
+            long rows = 0;
+            try {
+                List<Future<?>> scans = new ArrayList<>();
+                for (Partition partition : partitions) {
+                    scans.add(workers.submit(() -> {
+                        replayPartition(partition, rebuilt);
+                        return null;
+                    }));
+                }
+                for (Future<?> scan : scans) {
+                    scan.get();
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof SQLException sql ? sql : new SQLException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Ledger rebuild interrupted", e);
+            } finally {
+                workers.shutdown();
+            }
+            for (Partition partition : partitions) {
+                rows += partition.rows;
+            }
+
+            int caughtUp = 0;
+            swapLock.writeLock().lock();
+            try {
+                Set<String> scanned = scannedLiveRows(partitions, state.live.values());
+                for (Map.Entry<String, Posted> e : state.live.entrySet()) {
+                    if (!scanned.contains(e.getKey())) {
+                        rebuilt.computeIfAbsent(e.getValue().accountId(), Ledger::new).apply(e.getValue().transaction());
+                        caughtUp++;
+                    }
+                }
+                ledgers = rebuilt;
+                rebuilding = null;
+                ready = true;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            System.out.printf("Ledger projection rebuilt: %d accounts, %d transactions (+%d live) from %d partitions in %d ms%n",
+                              rebuilt.size(), rows, caughtUp, partitions.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuilding = null;
+            for (Partition partition : partitions) {
+                if (partition.conn != null) {
+                    try {
+                        partition.conn.close();
+                    } catch (SQLException e) {
+                        System.err.println("Closing ledger rebuild connection failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    // Folds the partition's accounts into a private map, then publishes it; accounts
+    // never span partitions, so no ledger is shared. Leaves partition.conn open in the
+    // snapshot the scan read.
+    private void replayPartition(Partition partition, Map<String, Ledger> into) throws SQLException {
+        String sql = "SELECT accountID, transactionID, type, amount, balanceAfter, date FROM transactions " +
+                     "WHERE accountID >= ? AND accountID " + (partition.last ? "<=" : "<") + " ? ORDER BY accountID";
+        Map<String, Ledger> local = new HashMap<>();
+        partition.conn = DatabaseUtil.getConnection();
+        DatabaseUtil.beginSnapshot(partition.conn);
+        try (PreparedStatement pstmt = partition.conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Streams rows instead of buffering the range (MySQL Connector/J)
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            pstmt.setString(1, partition.from);
+            pstmt.setString(2, partition.to);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Ledger ledger = null;
+                while (rs.next()) {
+                    String accountId = rs.getString(1);
+                    if (ledger == null || !ledger.accountId.equals(accountId)) {
+                        ledger = local.computeIfAbsent(accountId, Ledger::new);
+                    }
+                    ledger.apply(new Transaction(rs.getString(2), rs.getString(3), Money.read(rs, 4),
+                                                 Money.read(rs, 5), rs.getTimestamp(6)));
+                    partition.rows++;
+                }
+            }
+        }
+        into.putAll(local);
+    }
+
+    // transactionIDs of live events whose rows were in their partition's snapshot, so
+    // already folded in. Accounts outside every partition were not scanned at all.
+    private static Set<String> scannedLiveRows(List<Partition> partitions, Collection<Posted> live) throws SQLException {
+        Set<String> scanned = new HashSet<>();
+        for (Partition partition : partitions) {
+            List<String> ids = new ArrayList<>();
+            for (Posted posted : live) {
+                if (partition.covers(posted.accountId())) {
+                    ids.add(posted.transaction().transactionID);
+                }
+            }
+            for (int from = 0; from < ids.size(); from += 500) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + 500));
+                try (PreparedStatement pstmt = partition.conn.prepareStatement(
+                        "SELECT transactionID FROM transactions WHERE transactionID IN (" +
+                        String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            scanned.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        }
+        return scanned;
+    }
+
+    // Splits the distinct accountIDs into up to parallelism ranges of equal account count
+    private static List<String> partitionBounds(int parallelism) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT accountID FROM transactions ORDER BY accountID")) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        }
+        List<String> bounds = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return bounds;
+        }
+        int parts = Math.min(parallelism, ids.size());
+        for (int i = 0; i < parts; i++) {
+            bounds.add(ids.get(i * ids.size() / parts));
+        }
+        bounds.add(ids.get(ids.size() - 1));
+        return bounds;
+    }
+
+    // Accounts whose stored balance column differs from the projected balance. An
+    // account with no transactions still holds its opening balance, which no row records.
+    public List<String> driftReport() {
+        List<String> lines = new ArrayList<>();
+        for (CustomerAccount account : DatabaseUtil.loadCustomerAccounts()) {
+            Balance balance = get(account.accountID);
+            if (balance == null) {
+                continue;
+            }
+            long projected = balance.balance;
+            if (projected != account.getBalance()) {
+                lines.add(String.format("%s %-16s stored %s projected %s (diff %s)", account.accountID, account.accountType,
+                        Money.format(account.getBalance()), Money.format(projected),
+                        Money.format(Money.subtract(account.getBalance(), projected))));
+            }
+        }
+        return lines;
+    }
+
+    // Usage: LedgerProjection   (rebuilds, then lists balance drift)
+    public static void main(String[] args) throws SQLException {
+        LedgerProjection projection = DatabaseUtil.getLedger();
+        projection.rebuild(Integer.getInteger("bank.ledger.parallelism", 4));
+        List<String> drift = projection.driftReport();
+        drift.forEach(System.out::println);
+        System.out.println(drift.size() + " accounts drift from their transactions");
+    }
+}
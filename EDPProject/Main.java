@@ -1,10 +1,10 @@
 package EDP;
 import java.awt.*;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 
@@ -13,10 +13,16 @@ import javax.swing.border.TitledBorder;
 @SuppressWarnings("unused")
 public class Main  {
     private static final List<BankUser> bankUsers = new ArrayList<>();
-    private static final List<CustomerAccount> customerAccounts = DatabaseUtil.loadCustomerAccounts();
+    private static final AccountRegistry customerAccounts = new AccountRegistry();
     public static void main(String[] args) {
+        // Keep the registry in step with every committed create/update/disable/delete
+        DatabaseUtil.addAccountListener(customerAccounts);
+        // Show the login window first; accounts, search index and pool warm up behind it
+        StartupOrchestrator startup = new StartupOrchestrator();
+        startup.start(customerAccounts);
         // Suppress warning by using the instance in a way that cannot be optimized away
         new loginPage(bankUsers, customerAccounts).setVisible(true);
+        startup.firstFrameShown();
     }
 
     // Utility method for age calculation (static, so it can be used anywhere)
@@ -39,11 +45,11 @@ public class Main  {
 class Transaction {
     String transactionID;
     String type;
-    double amount;
-    double balanceAfter;
+    long amount;        // centavos, see Money
+    long balanceAfter;  // centavos
     Date date;
 
-    public Transaction(String type, double amount, double balanceAfter) {
+    public Transaction(String type, long amount, long balanceAfter) {
         this.transactionID = generateTransactionID();
         this.type = type;
         this.amount = amount;
@@ -51,17 +57,26 @@ class Transaction {
         this.date = new Date();
     }         
     
-    public Transaction(String type, double amount, double balanceAfter, Date date) {
+    public Transaction(String type, long amount, long balanceAfter, Date date) {
         this.transactionID = generateTransactionID();
         this.type = type;
         this.amount = amount;
         this.balanceAfter = balanceAfter;
         this.date = date;
     }
+
+    // For rows read back from the database, keeping their stored ID
+    public Transaction(String transactionID, String type, long amount, long balanceAfter, Date date) {
+        this.transactionID = transactionID;
+        this.type = type;
+        this.amount = amount;
+        this.balanceAfter = balanceAfter;
+        this.date = date;
+    }
     
     private String generateTransactionID() {
-        // Generate a UUID-based transaction ID
-        return "TRN" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase();
+        // Time-ordered, so inserts append to the end of the transactions index
+        return TransactionIdGenerator.nextTransactionId();
     }
 }
 class CustomerAccount {
@@ -84,7 +99,7 @@ class CustomerAccount {
     String email;
     String gender;
     String accountType;
-    double balance;
+    long balance; // centavos, see Money
     int transactionCount;
     Date lastTransactionDate;
     Date lastInterestFeeApplicationDate;
@@ -94,7 +109,7 @@ class CustomerAccount {
                       String middleName, String lastName, Date birthDate,
                       String street, String barangay, String municipality,
                       String provinceCity, String zip, String phone,
-                      String email, String gender, String accountType, double initialDeposit, boolean is_active) {
+                      String email, String gender, String accountType, long initialDeposit, boolean is_active) {
         this.feeCycleCounter = 0;
         this.customerID = customerID;
         this.accountID = accountID;
@@ -150,50 +165,39 @@ class CustomerAccount {
             }
         }
     }
+   // Interest or fee for the current month, posted through the month-end engine so an
+   // account is never charged or credited twice for the same month
    public void applyMonthlyConditions() {
-    if (accountType.equals("Savings Account")) {
-        double interestRate = 0.002916; // Monthly interest rate (example)
-        double interest = balance * interestRate;
-        balance += interest;
-        Transaction interestTransaction = new Transaction("Interest", interest, balance); 
-        DatabaseUtil.saveTransaction(interestTransaction, accountID); 
-        // Add a transaction record for the interest
-        transactionHistory.add(new Transaction("Interest", interest, balance));
-        DatabaseUtil.updateCustomerAccount(this); // Update in DB
-        DatabaseUtil.saveTransaction(new Transaction("Interest", interest, balance), this.accountID);
-
-    } else if (accountType.equals("Checkings Account")) {
-    double monthlyFee = -10.0;
-    balance += monthlyFee; // Note: fee is negative
-    // Create a Transaction object
-    Transaction feeTransaction = new Transaction("Monthly Fee", monthlyFee, balance);
-    DatabaseUtil.saveTransaction(feeTransaction, accountID);
-    // ... update account balance in database ...
-}
+    Transaction transaction = MonthEndPostingEngine.postAccount(this, YearMonth.now());
+    if (transaction != null) {
+        applyPosted(transaction);
+    }
 }
    
   // CustomerAccount.java - Corrected methods
-public void deposit(double amount) {
-    balance += amount;
-    Transaction transaction = new Transaction("Deposit", amount, balance);
-    transactionHistory.add(transaction);
-    DatabaseUtil.saveTransaction(transaction, this.accountID);
-    DatabaseUtil.updateCustomerAccount(this); // Updates balance in DB
+// The database applies the change and decides the balance; memory only follows the commit
+public void deposit(long amount) {
+    Transaction transaction = DatabaseUtil.postTransaction(this, "Deposit", amount);
+    if (transaction != null) {
+        applyPosted(transaction);
+    }
 }
 
-public void withdraw(double amount) {
-    if (amount > balance) {
-        JOptionPane.showMessageDialog(null, "Insufficient funds!", "Error", JOptionPane.ERROR_MESSAGE);
-        return;
+public void withdraw(long amount) {
+    // Overdraft is checked against the stored balance, not this possibly stale copy
+    Transaction transaction = DatabaseUtil.postTransaction(this, "Withdrawal", Money.negate(amount));
+    if (transaction != null) {
+        applyPosted(transaction);
     }
-    balance -= amount;
-    Transaction transaction = new Transaction("Withdrawal", amount, balance);
+}
+
+// Brings this copy up to a committed transaction
+void applyPosted(Transaction transaction) {
+    balance = transaction.balanceAfter;
     transactionHistory.add(transaction);
-    DatabaseUtil.saveTransaction(transaction, this.accountID);
-    DatabaseUtil.updateCustomerAccount(this); // Updates balance in DB
 }
 
-    public double getBalance() {
+    public long getBalance() {
         return balance;
     }
     
@@ -231,7 +235,7 @@ class BackgroundPanel extends JPanel {
 //=========================START OF LOGIN ====================================================================================================START OF LOGIN ===================================================================
 
 class loginPage extends JFrame {
-    loginPage(List<BankUser> bankUsers, List<CustomerAccount> customerAccounts) {
+    loginPage(List<BankUser> bankUsers, AccountRegistry customerAccounts) {
         setSize(920, 640);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
@@ -313,8 +317,13 @@ class loginPage extends JFrame {
                     return;
                 }
 
-                List<BankUser> matchedUsers = DatabaseUtil.loadBankUsers(inputUsername, inputPassword);
-
+                logInBtn.setEnabled(false);
+                AsyncDatabaseUtil.loadBankUsers(inputUsername, inputPassword).whenCompleteAsync((matchedUsers, error) -> {
+                logInBtn.setEnabled(true);
+                if (error != null) {
+                    JOptionPane.showMessageDialog(null, "Database Error: " + AsyncDatabaseUtil.errorMessage(error), "Login Failed", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
                 if (matchedUsers.isEmpty()) {
                     JOptionPane.showMessageDialog(null, "Invalid username or password!", "Login Failed", JOptionPane.ERROR_MESSAGE);
                 } else {
@@ -333,6 +342,7 @@ if ("Manager".equals(loggedInUser.role)) {
 }
                     }
                 }
+                }, AsyncDatabaseUtil.EDT);
 });
  exitBtn.addActionListener(_ -> dispose());
 
@@ -360,7 +370,8 @@ if ("Manager".equals(loggedInUser.role)) {
 class ManagerDashboard extends JFrame{
     private final BankUser currentUser;
     private CustomerAccount currentAccount = null;
-    ManagerDashboard(BankUser user, List<BankUser> bankUsers, List<CustomerAccount> customerAccounts) {
+    private Timer dashboardRefresh;
+    ManagerDashboard(BankUser user, List<BankUser> bankUsers, AccountRegistry customerAccounts) {
         this.currentUser = user;
 
         setSize(920, 740);
@@ -479,6 +490,12 @@ class ManagerDashboard extends JFrame{
                      transactionsBtn.setOpaque(false);
                       transactionsBtn.setFont(new Font("SquanSerif",Font.PLAIN,12));
                       transactionsBtn.add(translabel);
+
+                JButton statementsBtn = new JButton("Account Statements");
+                     statementsBtn.setBackground(new Color(0x1d3557));
+                     statementsBtn.setForeground(new Color(0xFFFFFF));
+                     statementsBtn.setOpaque(false);
+                      statementsBtn.setFont(new Font("SquanSerif",Font.PLAIN,12));
                       
                         ImageIcon logOuticon = new ImageIcon("C:/Users/Jed/Documents/NetBeansProjects/EventDrivenProgramming_Project/src/eventdrivenprogramming_project/icons8-logout-48.png");
                 JButton logOutBtn=new JButton(" Log out");
@@ -491,6 +508,7 @@ class ManagerDashboard extends JFrame{
              panelForBtns.add(homeBtn);
             panelForBtns.add(updateCustomerInformationBtn);
              panelForBtns.add(transactionsBtn);
+             panelForBtns.add(statementsBtn);
              panelForBtns.add(logOutBtn);
              
         bigPanel.add(labelm);
@@ -528,10 +546,6 @@ class ManagerDashboard extends JFrame{
 
                   cardPanel.add(homePanel,"Home");
                   
-                        double totalDeposits = DatabaseUtil.getTotalDeposits();
-                        double totalWithdrawals = DatabaseUtil.getTotalWithdrawals();
-                        int totalCustomers = DatabaseUtil.getTotalCustomers();
-                         int totalTransactions = DatabaseUtil.getTotalTransactions() ;
                         
                   
 
@@ -564,7 +578,7 @@ class ManagerDashboard extends JFrame{
                             mp1.setBorder(BorderFactory.createLineBorder(new Color(0x1d3557), 3, false));
                             mp1.setBackground(Color.white); mp1.add(tcustomerslabel);
                             
-                            JLabel totalcustomers = new JLabel("Total Customers : "+String.valueOf(totalCustomers));
+                            JLabel totalcustomers = new JLabel("Total Customers : ...");
                             
                                
                             mp1.setBackground(Color.white);
@@ -582,7 +596,7 @@ class ManagerDashboard extends JFrame{
                             JPanel mp2 =new JPanel();
                             mp2.setBorder(BorderFactory.createLineBorder(new Color(0x1d3557), 3, false));
                             mp2.setBackground(Color.white);
-                              JLabel totaldeposits = new JLabel("Total Deposits : "+ "₱" + String.format("%,.2f", totalDeposits));
+                              JLabel totaldeposits = new JLabel("Total Deposits : ...");
                               
                             mp2.add(totaldeposits); mp2.add(tdepositslabel);
                             
@@ -598,12 +612,12 @@ class ManagerDashboard extends JFrame{
                            
                             mp3.setBackground(Color.white);
                             
-                             JLabel totalwitdrawals = new JLabel("Total Withdrawals : " + "₱" + String.format("%,.2f", totalWithdrawals));
+                             JLabel totalwitdrawals = new JLabel("Total Withdrawals : ...");
                              
                             mp3.add(twlabel);
                             mp3.add(totalwitdrawals);
                                 
-                                JLabel accountscreated = new JLabel("Accounts Created : " + String.valueOf(totalCustomers));
+                                JLabel accountscreated = new JLabel("Accounts Created : ...");
                               ImageIcon acicon = new ImageIcon("");
                                 Image acimage = acicon.getImage().getScaledInstance(200, 200, Image.SCALE_SMOOTH);
                                 ImageIcon acresizedIcon = new ImageIcon(acimage);
@@ -638,7 +652,7 @@ class ManagerDashboard extends JFrame{
                             JPanel mp6 =new JPanel();
                             mp6.setBackground(Color.white);
                             mp6.setBorder(BorderFactory.createLineBorder(new Color(0x1d3557), 3, false));
-                             JLabel transactioncompleted = new JLabel("Transaction Completed : "+ String.valueOf(totalTransactions));
+                             JLabel transactioncompleted = new JLabel("Transaction Completed : ...");
                             
                             mp6.setBackground(Color.white);
                             
@@ -658,6 +672,24 @@ class ManagerDashboard extends JFrame{
                         homePanel.add(con1);
                         homePanel.add(con);
 
+                        // Totals come from the maintained aggregates (no transactions scan) and refresh on a timer
+                        java.util.function.Consumer<DashboardAggregates.Totals> showTotals = totals -> {
+                            totalcustomers.setText("Total Customers : " + totals.customers);
+                            accountscreated.setText("Accounts Created : " + totals.customers);
+                            totaldeposits.setText("Total Deposits : " + Money.format(totals.deposits));
+                            totalwitdrawals.setText("Total Withdrawals : " + Money.format(totals.withdrawals));
+                            transactioncompleted.setText("Transaction Completed : " + totals.transactions);
+                        };
+                        // Paint the totals prefetched at startup straight away, then fetch fresh ones
+                        DashboardAggregates.Totals prefetched = DashboardAggregates.latest();
+                        if (prefetched != null) {
+                            showTotals.accept(prefetched);
+                        }
+                        Runnable refreshTotals = () -> AsyncDatabaseUtil.getDashboardTotals().thenAcceptAsync(showTotals, AsyncDatabaseUtil.EDT);
+                        refreshTotals.run();
+                        dashboardRefresh = new Timer(Integer.getInteger("bank.dashboard.refreshMs", 10_000), e -> refreshTotals.run());
+                        dashboardRefresh.start();
+
 
                   cardPanel.add(deleteAccPanel, "Delete");
 
@@ -675,6 +707,110 @@ class ManagerDashboard extends JFrame{
 
                            transactionsPanel.add(viewAccountTypestitle);
 
+                           JTextField historyAccountField = new JTextField();
+                           historyAccountField.setBounds(50, 90, 300, 30);
+                           historyAccountField.setBorder(BorderFactory.createTitledBorder("Account ID"));
+                           transactionsPanel.add(historyAccountField);
+
+                           JButton historyLoadBtn = new JButton("Load");
+                           historyLoadBtn.setBounds(370, 90, 100, 30);
+                           historyLoadBtn.setBackground(new Color(0x1d3557));
+                           historyLoadBtn.setForeground(Color.white);
+                           transactionsPanel.add(historyLoadBtn);
+
+                           // Pages are fetched as the table is scrolled, never the whole history at once
+                           TransactionHistoryTableModel historyModel = new TransactionHistoryTableModel(50);
+                           JTable historyTable = new JTable(historyModel);
+                           JScrollPane historyScroll = new JScrollPane(historyTable);
+                           historyScroll.setBounds(50, 140, 550, 520);
+                           historyModel.attachTo(historyScroll);
+                           transactionsPanel.add(historyScroll);
+
+                           historyLoadBtn.addActionListener(_ -> {
+                               String historyAccount = historyAccountField.getText().trim();
+                               if (historyAccount.isEmpty()) {
+                                   JOptionPane.showMessageDialog(null, "Please enter an Account ID.", "Empty Field", JOptionPane.WARNING_MESSAGE);
+                                   return;
+                               }
+                               historyModel.showAccount(historyAccount);
+                           });
+
+          JPanel statementsPanel = new JPanel(null);
+          statementsPanel.setBackground(Color.white);
+                 cardPanel.add(statementsPanel, "Statement");
+
+                           JLabel statementsTitle = new JLabel("Account Statements");
+                           statementsTitle.setBounds(50, 50, 200, 25);
+                           statementsPanel.add(statementsTitle);
+
+                           JTextField statementAccountField = new JTextField();
+                           statementAccountField.setBounds(50, 90, 300, 40);
+                           statementAccountField.setBorder(BorderFactory.createTitledBorder("Account ID"));
+                           statementsPanel.add(statementAccountField);
+
+                           JTextField statementPeriodField = new JTextField(YearMonth.now().minusMonths(1).toString());
+                           statementPeriodField.setBounds(50, 140, 300, 40);
+                           statementPeriodField.setBorder(BorderFactory.createTitledBorder("Month (yyyy-MM)"));
+                           statementsPanel.add(statementPeriodField);
+
+                           JButton generateStatementBtn = new JButton("Generate");
+                           generateStatementBtn.setBounds(50, 195, 140, 30);
+                           generateStatementBtn.setBackground(new Color(0x1d3557));
+                           generateStatementBtn.setForeground(Color.white);
+                           statementsPanel.add(generateStatementBtn);
+
+                           JButton monthEndStatementsBtn = new JButton("All Accounts");
+                           monthEndStatementsBtn.setBounds(210, 195, 140, 30);
+                           monthEndStatementsBtn.setBackground(new Color(0x1d3557));
+                           monthEndStatementsBtn.setForeground(Color.white);
+                           statementsPanel.add(monthEndStatementsBtn);
+
+                           JLabel statementStatus = new JLabel(" ");
+                           statementStatus.setBounds(50, 240, 550, 25);
+                           statementsPanel.add(statementStatus);
+
+                           // Statements are written as text files under -Dbank.statement.dir
+                           java.nio.file.Path statementDir = java.nio.file.Paths.get(System.getProperty("bank.statement.dir", "statements"));
+                           generateStatementBtn.addActionListener(_ -> {
+                               String statementAccount = statementAccountField.getText().trim();
+                               YearMonth period = parseStatementPeriod(statementPeriodField.getText());
+                               if (statementAccount.isEmpty() || period == null) {
+                                   JOptionPane.showMessageDialog(null, "Enter an Account ID and a month as yyyy-MM.", "Invalid Input", JOptionPane.WARNING_MESSAGE);
+                                   return;
+                               }
+                               generateStatementBtn.setEnabled(false);
+                               statementStatus.setText("Generating statement for " + statementAccount + "...");
+                               AsyncDatabaseUtil.generateStatement(statementAccount, period, statementDir).whenCompleteAsync((result, error) -> {
+                                   generateStatementBtn.setEnabled(true);
+                                   if (error != null) {
+                                       statementStatus.setText("Statement failed: " + AsyncDatabaseUtil.errorMessage(error));
+                                       return;
+                                   }
+                                   statementStatus.setText("Saved " + result.file + " (" + result.transactions + " transactions, " + result.pages + " pages)");
+                               }, AsyncDatabaseUtil.EDT);
+                           });
+
+                           monthEndStatementsBtn.addActionListener(_ -> {
+                               YearMonth period = parseStatementPeriod(statementPeriodField.getText());
+                               if (period == null) {
+                                   JOptionPane.showMessageDialog(null, "Enter the month as yyyy-MM.", "Invalid Input", JOptionPane.WARNING_MESSAGE);
+                                   return;
+                               }
+                               monthEndStatementsBtn.setEnabled(false);
+                               statementStatus.setText("Generating month-end statements for " + period + "...");
+                               AsyncDatabaseUtil.runMonthEndStatements(period, statementDir, Integer.getInteger("bank.statement.parallelism", 4)).whenCompleteAsync((result, error) -> {
+                                   monthEndStatementsBtn.setEnabled(true);
+                                   if (error != null) {
+                                       statementStatus.setText("Month-end statements failed: " + AsyncDatabaseUtil.errorMessage(error));
+                                   } else if (result.failed > 0) {
+                                       statementStatus.setText("Month-end statements: " + result.written + " saved, " + result.failed
+                                           + " failed (see the log) in " + statementDir);
+                                   } else {
+                                       statementStatus.setText("Month-end statements: " + result.written + " saved in " + statementDir);
+                                   }
+                               }, AsyncDatabaseUtil.EDT);
+                           });
+
                            
 
 
@@ -853,6 +989,20 @@ class ManagerDashboard extends JFrame{
                             
                            
                          
+// Live suggestions while typing; picking one runs the normal search for that account
+updateCustomerPanel.setComponentZOrder(suggestionList, 0);
+SuggestionTypeahead typeahead = new SuggestionTypeahead(searchField, suggestionList, 8, 250);
+suggestionList.addListSelectionListener(e -> {
+    if (e.getValueIsAdjusting()) {
+        return;
+    }
+    CustomerAccount picked = typeahead.getSuggestion(suggestionList.getSelectedIndex());
+    if (picked != null) {
+        typeahead.setTextQuietly(picked.accountID);
+        searchButton.doClick();
+    }
+});
+
 searchButton.addActionListener(_ -> {
     String query = searchField.getText().trim();
     
@@ -863,8 +1013,14 @@ searchButton.addActionListener(_ -> {
 
     // Assuming your DatabaseUtil can get a customer account by exact account or customer ID.
     // If you want to search by name or email too, you might need to adjust this accordingly.
-    CustomerAccount acc = DatabaseUtil.getCustomerAccount(query);
-    currentAccount = DatabaseUtil.getCustomerAccount(query);
+    searchButton.setEnabled(false);
+    AsyncDatabaseUtil.getCustomerAccount(query).whenCompleteAsync((acc, error) -> {
+    searchButton.setEnabled(true);
+    if (error != null) {
+        JOptionPane.showMessageDialog(null, "Database Error: " + AsyncDatabaseUtil.errorMessage(error), "Search Failed", JOptionPane.ERROR_MESSAGE);
+        return;
+    }
+    currentAccount = acc;
 if (currentAccount != null) {
     // Display account details in UI
     updateFirstName.setText(currentAccount.firstName);
@@ -938,6 +1094,8 @@ if (currentAccount != null) {
     // Store original info for updates
     updateCustomerPanel.putClientProperty("originalCustomerID", acc.customerID);
     updateCustomerPanel.putClientProperty("originalAccountType", acc.accountType);
+    updateCustomerPanel.putClientProperty("originalAccountID", acc.accountID);
+    }, AsyncDatabaseUtil.EDT);
 });
 
 // A helper method to clear update fields if needed
@@ -951,7 +1109,7 @@ if (currentAccount != null) {
 
 updateBtn.addActionListener(_ -> {
     System.out.println("\n=== UPDATE BUTTON CLICKED ===");
-    if (updateFirstName.getText().trim().isEmpty() || updateLastName.getText().trim().isEmpty()) {
+    if (!AccountValidation.hasRequiredNames(updateFirstName.getText(), updateLastName.getText())) {
         JOptionPane.showMessageDialog(null, 
             "First Name and Last Name are required", 
             "Validation Error", 
@@ -959,7 +1117,7 @@ updateBtn.addActionListener(_ -> {
         return;
     }
     String newEmail = updateEmail.getText().trim();
-    if (!newEmail.isEmpty() && !newEmail.matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
+    if (!AccountValidation.isValidEmail(newEmail)) {
         JOptionPane.showMessageDialog(null, 
             "Invalid email format", 
             "Error", 
@@ -967,7 +1125,7 @@ updateBtn.addActionListener(_ -> {
         return;
     }
     String newPhone = updatePhone.getText().trim();
-    if (!newPhone.matches("^09\\d{9}$")) {
+    if (!AccountValidation.isValidPhone(newPhone)) {
         JOptionPane.showMessageDialog(null, 
             "Invalid phone number (09XXXXXXXXX)", 
             "Error", 
@@ -982,13 +1140,8 @@ updateBtn.addActionListener(_ -> {
             JOptionPane.ERROR_MESSAGE);
         return;
     }
-    CustomerAccount foundAcc = null;
-    for (CustomerAccount a : customerAccounts) {
-        if (a.customerID.equals(customerID)) {
-            foundAcc = a;
-            break;
-        }
-    }
+    String accountID = (String) updateCustomerPanel.getClientProperty("originalAccountID");
+    CustomerAccount foundAcc = customerAccounts.getByAccountId(accountID);
     if (foundAcc == null) {
         JOptionPane.showMessageDialog(null, "Customer not found in memory!", "Error", JOptionPane.ERROR_MESSAGE);
         return;
@@ -1015,7 +1168,13 @@ updateBtn.addActionListener(_ -> {
     // Update account type
     foundAcc.accountType = (String) updateAccountType.getSelectedItem();
     // Update database
-    boolean dbUpdated = DatabaseUtil.updateCustomerAccount(foundAcc);
+    updateBtn.setEnabled(false);
+    AsyncDatabaseUtil.updateCustomerAccount(foundAcc).whenCompleteAsync((dbUpdated, error) -> {
+    updateBtn.setEnabled(true);
+    if (error != null) {
+        JOptionPane.showMessageDialog(null, "Database Error: " + AsyncDatabaseUtil.errorMessage(error), "Update Failed", JOptionPane.ERROR_MESSAGE);
+        return;
+    }
     // Print confirmation
     System.out.println("\n=== UPDATED CUSTOMER DETAILS ===");
     System.out.println("Customer ID: " + foundAcc.customerID);
@@ -1039,6 +1198,7 @@ updateBtn.addActionListener(_ -> {
             "Error", 
             JOptionPane.ERROR_MESSAGE);
     }
+    }, AsyncDatabaseUtil.EDT);
 });
 
 
@@ -1060,6 +1220,7 @@ clearBtn.addActionListener(_ -> {
     customerIDLabel.setText(" ");
     accountIDLabel.setText(" ");
     updateCustomerPanel.putClientProperty("originalCustomerID", null);
+    updateCustomerPanel.putClientProperty("originalAccountID", null);
     updateEmail.putClientProperty("originalEmail", null);
     suggestionList.setVisible(false);
 });
@@ -1078,10 +1239,15 @@ deleteBtn.addActionListener(_ -> {
     );
 
     if (confirm == JOptionPane.YES_OPTION) {
-        boolean success = DatabaseUtil.deleteCustomerAccount(currentAccount.accountID);
+        deleteBtn.setEnabled(false);
+        AsyncDatabaseUtil.deleteCustomerAccount(currentAccount.accountID).whenCompleteAsync((success, error) -> {
+        deleteBtn.setEnabled(true);
+        if (error != null) {
+            JOptionPane.showMessageDialog(null, "Database Error: " + AsyncDatabaseUtil.errorMessage(error), "Delete Failed", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         if (success) {
-            // Remove the account from the in-memory list
-            customerAccounts.removeIf(acc -> acc.accountID.equals(currentAccount.accountID));
+            // DatabaseUtil has already dropped it from the registry
             JOptionPane.showMessageDialog(null, "Account deleted!", "Success", JOptionPane.INFORMATION_MESSAGE);
             
             // Clear UI fields and references
@@ -1104,6 +1270,7 @@ deleteBtn.addActionListener(_ -> {
         } else {
             JOptionPane.showMessageDialog(null, "Deletion failed!", "Error", JOptionPane.ERROR_MESSAGE);
         }
+        }, AsyncDatabaseUtil.EDT);
     }
 });
 
@@ -1118,9 +1285,12 @@ deleteBtn.addActionListener(_ -> {
 
 
                      transactionsBtn.addActionListener(_ -> cardLayout.show(cardPanel, "View"));
+
+                     statementsBtn.addActionListener(_ -> cardLayout.show(cardPanel, "Statement"));
 logOutBtn.addActionListener(_ -> {
     int confirm = JOptionPane.showConfirmDialog(null, "Are you sure you want to log out?", "Confirm Logout", JOptionPane.YES_NO_OPTION);
     if (confirm == JOptionPane.YES_OPTION) {
+        dashboardRefresh.stop();
         dispose();
         new loginPage(bankUsers, customerAccounts).setVisible(true);
     }
@@ -1134,12 +1304,21 @@ logOutBtn.addActionListener(_ -> {
      setVisible(true);
 
     }
+
+    // yyyy-MM from the statements card, or null if it does not parse
+    private static YearMonth parseStatementPeriod(String text) {
+        try {
+            return YearMonth.parse(text.trim());
+        } catch (java.time.format.DateTimeParseException e) {
+            return null;
+        }
+    }
 } // <-- This closes the navigation class
 //=========================START OF NAVIGATION (TELLER DASHBOARD)============================================
 
 class navigation extends JFrame {
     private final BankUser currentUser;
-    navigation(BankUser user, List<BankUser> bankUsers, List<CustomerAccount> customerAccounts) {
+    navigation(BankUser user, List<BankUser> bankUsers, AccountRegistry customerAccounts) {
         this.currentUser = user;
         setTitle("Teller Dashboard");
         setSize(900, 600);
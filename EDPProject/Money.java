@@ -0,0 +1,77 @@
+package EDP;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Peso amounts as a primitive long count of centavos. Arithmetic stays on longs (exact,
+// no allocation, overflow throws instead of wrapping); BigDecimal only appears at the
+// edges, where values cross into DECIMAL(…,2) columns or are parsed from text.
+public final class Money {
+    public static final long ZERO = 0L;
+    public static final int SCALE = 2;
+    private static final long CENTAVOS_PER_PESO = 100L;
+
+    private Money() {
+    }
+
+    public static long ofPesos(long pesos) {
+        return Math.multiplyExact(pesos, CENTAVOS_PER_PESO);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static long negate(long amount) {
+        return Math.negateExact(amount);
+    }
+
+    // Exact conversion; more than two decimal places is an error, not a silent rounding.
+    public static long fromDecimal(BigDecimal value) {
+        if (value == null) {
+            return ZERO;
+        }
+        return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, SCALE);
+    }
+
+    // Parses user or file input such as "1500", "1,500.5" or "₱1,500.50".
+    public static long parse(String text) {
+        String cleaned = text.trim().replace("₱", "").replace(",", "");
+        try {
+            return fromDecimal(new BigDecimal(cleaned));
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("More than two decimal places: " + text);
+        }
+    }
+
+    public static String format(long centavos) {
+        return String.format("₱%,.2f", toDecimal(centavos));
+    }
+
+    // JDBC edges. Reads round to centavos, half away from zero, so legacy DOUBLE columns
+    // still load; SchemaMigrations converts those columns to DECIMAL(15,2).
+    public static long read(ResultSet rs, String column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value == null ? ZERO : fromDecimal(value.setScale(SCALE, RoundingMode.HALF_UP));
+    }
+
+    public static long read(ResultSet rs, int column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value == null ? ZERO : fromDecimal(value.setScale(SCALE, RoundingMode.HALF_UP));
+    }
+
+    public static void bind(PreparedStatement pstmt, int index, long centavos) throws SQLException {
+        pstmt.setBigDecimal(index, toDecimal(centavos));
+    }
+}
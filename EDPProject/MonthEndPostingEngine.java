@@ -0,0 +1,285 @@
+package EDP;
+
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Month-end interest (savings) and maintenance fee (checking) for every active account.
+// Accounts are split into chunks posted in parallel on a fork/join pool. Each chunk is
+// one DB transaction: claim the accounts in posting_runs, move all their balances with
+// one UPDATE per table, batch-insert the Transaction rows, commit. posting_runs has one
+// row per account per period, so an account is never posted twice for the same month
+// and a run that died halfway is finished by simply running it again.
+// SchemaMigrations creates posting_runs.
+public class MonthEndPostingEngine {
+    static final long SAVINGS_MONTHLY_RATE_PPM = 2916;   // 0.2916% a month
+    static final long CHECKING_MONTHLY_FEE = Money.ofPesos(10);
+
+    private static final String CREATE_SQL =
+        "CREATE TABLE IF NOT EXISTS posting_runs (" +
+        "  accountID VARCHAR(32) COLLATE utf8mb4_bin NOT NULL," +
+        "  period CHAR(7) NOT NULL," +
+        "  run_id CHAR(36) NOT NULL," +
+        "  kind VARCHAR(20) NOT NULL," +
+        "  amount DECIMAL(15,2) NOT NULL," +
+        "  posted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+        "  PRIMARY KEY (accountID, period)," +
+        "  KEY idx_posting_runs_run (run_id)" +
+        ")";
+
+    private static final String INSERT_TRANSACTION_SQL =
+        "INSERT INTO transactions (transactionID, accountID, type, amount, balanceAfter, date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final YearMonth period;
+    private final int chunkSize;
+    private final int parallelism;
+
+    private final AtomicInteger accountsPosted = new AtomicInteger();
+    private final AtomicInteger accountsSkipped = new AtomicInteger();
+    private final AtomicInteger chunksCommitted = new AtomicInteger();
+    private final AtomicInteger chunksFailed = new AtomicInteger();
+
+    public MonthEndPostingEngine(YearMonth period, int chunkSize, int parallelism) {
+        this.period = period;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    // Builds an engine from -Dbank.posting.* system properties.
+    public static MonthEndPostingEngine fromSystemProperties(YearMonth period) {
+        return new MonthEndPostingEngine(period,
+                Integer.getInteger("bank.posting.chunkSize", 500),
+                Integer.getInteger("bank.posting.parallelism", 4));
+    }
+
+    // Posts the month for every active account not yet posted for this period.
+    public void run() throws SQLException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (String accountType : List.of("Savings Account", "Checking Account")) {
+                List<String> pending = pendingAccounts(accountType);
+                pool.invoke(new ChunkTask(accountType, pending, 0, pending.size()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("Month-end %s: %d accounts posted, %d already posted or closed, " +
+                          "%d chunks committed, %d failed, %d ms%n",
+                          period, accountsPosted.get(), accountsSkipped.get(),
+                          chunksCommitted.get(), chunksFailed.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Posts one account for the period; returns null if it was already posted or nothing was due.
+    public static Transaction postAccount(CustomerAccount account, YearMonth period) {
+        MonthEndPostingEngine engine = new MonthEndPostingEngine(period, 1, 1);
+        try {
+            return engine.postChunk(account.accountType, List.of(account.accountID)).get(account.accountID);
+        } catch (SQLException e) {
+            System.err.println("Month-end posting failed for " + account.accountID + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int getAccountsPosted() {
+        return accountsPosted.get();
+    }
+
+    public int getChunksFailed() {
+        return chunksFailed.get();
+    }
+
+    private final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String accountType;
+        private final transient List<String> accountIds;
+        private final int from;
+        private final int to;
+
+        ChunkTask(String accountType, List<String> accountIds, int from, int to) {
+            this.accountType = accountType;
+            this.accountIds = accountIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(accountType, accountIds, from, mid),
+                          new ChunkTask(accountType, accountIds, mid, to));
+                return;
+            }
+            if (from == to) {
+                return;
+            }
+            try {
+                postChunk(accountType, accountIds.subList(from, to));
+                chunksCommitted.incrementAndGet();
+            } catch (SQLException e) {
+                // Rolled back as a whole; the next run picks these accounts up again
+                chunksFailed.incrementAndGet();
+                System.err.println("Month-end chunk of " + (to - from) + " " + accountType + " rows failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // One chunk in one DB transaction. Returns the transaction posted for each account.
+    private Map<String, Transaction> postChunk(String accountType, List<String> accountIds) throws SQLException {
+        boolean savings = accountType.equalsIgnoreCase("Savings Account");
+        String kind = savings ? "Interest" : "Monthly Fee";
+        String primary = AccountsMigration.primaryTable(accountType);
+        String typeFilter = AccountsMigration.readsUnified() ? " AND account_type = ?" : "";
+        String in = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        // Fees never take a balance below zero, matching the withdrawal rule
+        String amountExpr = savings ? "ROUND(balance * ?, 2)" : "-LEAST(balance, ?)";
+        String runId = UUID.randomUUID().toString();
+
+        Map<String, Transaction> posted = new LinkedHashMap<>();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Lock the rows first so a concurrent teller posting cannot slip in between the
+                // amount being computed and the balance being moved
+                try (PreparedStatement lock = conn.prepareStatement(
+                        "SELECT accountID FROM " + primary + " WHERE accountID IN (" + in + ")" + typeFilter +
+                        " ORDER BY accountID FOR UPDATE")) {
+                    int i = bindIds(lock, 1, accountIds);
+                    if (!typeFilter.isEmpty()) {
+                        lock.setString(i, accountType);
+                    }
+                    lock.executeQuery().close();
+                }
+
+                int claimed;
+                try (PreparedStatement claim = conn.prepareStatement(
+                        "INSERT IGNORE INTO posting_runs (accountID, period, run_id, kind, amount) " +
+                        "SELECT accountID, ?, ?, ?, " + amountExpr + " FROM " + primary +
+                        " WHERE is_active = true AND accountID IN (" + in + ")" + typeFilter)) {
+                    claim.setString(1, period.toString());
+                    claim.setString(2, runId);
+                    claim.setString(3, kind);
+                    // Bound as exact DECIMALs so the interest is computed without binary rounding
+                    if (savings) {
+                        claim.setBigDecimal(4, java.math.BigDecimal.valueOf(SAVINGS_MONTHLY_RATE_PPM, 6));
+                    } else {
+                        Money.bind(claim, 4, CHECKING_MONTHLY_FEE);
+                    }
+                    int i = bindIds(claim, 5, accountIds);
+                    if (!typeFilter.isEmpty()) {
+                        claim.setString(i, accountType);
+                    }
+                    claimed = claim.executeUpdate();
+                }
+                accountsSkipped.addAndGet(accountIds.size() - claimed);
+                if (claimed == 0) {
+                    conn.commit();
+                    return posted;
+                }
+
+                // Set-based: one UPDATE per table moves every claimed balance in this chunk
+                for (String table : AccountsMigration.writeTables(accountType)) {
+                    try (PreparedStatement move = conn.prepareStatement(
+                            "UPDATE " + table + " t JOIN posting_runs p ON p.accountID = t.accountID " +
+                            "SET t.balance = t.balance + p.amount WHERE p.run_id = ? AND p.amount <> 0")) {
+                        move.setString(1, runId);
+                        move.executeUpdate();
+                    }
+                }
+
+                Date now = new Date();
+                List<Transaction> written = new ArrayList<>();
+                List<String> writtenAccounts = new ArrayList<>();
+                try (PreparedStatement select = conn.prepareStatement(
+                        "SELECT p.accountID, p.amount, t.balance FROM posting_runs p JOIN " + primary + " t " +
+                        "ON t.accountID = p.accountID WHERE p.run_id = ? AND p.amount <> 0");
+                     PreparedStatement insert = conn.prepareStatement(INSERT_TRANSACTION_SQL)) {
+                    select.setString(1, runId);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            Transaction t = new Transaction(kind, Math.abs(Money.read(rs, 2)), Money.read(rs, 3), now);
+                            insert.setString(1, t.transactionID);
+                            insert.setString(2, rs.getString(1));
+                            insert.setString(3, t.type);
+                            Money.bind(insert, 4, t.amount);
+                            Money.bind(insert, 5, t.balanceAfter);
+                            insert.setTimestamp(6, new java.sql.Timestamp(now.getTime()));
+                            insert.addBatch();
+                            written.add(t);
+                            writtenAccounts.add(rs.getString(1));
+                            posted.put(rs.getString(1), t);
+                        }
+                    }
+                    if (!written.isEmpty()) {
+                        insert.executeBatch();
+                        DashboardAggregates.recordTransactions(conn, writtenAccounts, written);
+                        BalanceCheckpoints.record(conn, writtenAccounts, written);
+                    }
+                }
+
+                conn.commit();
+                DatabaseUtil.fireTransactionsPosted(writtenAccounts, written);
+                accountsPosted.addAndGet(claimed);
+                return posted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private List<String> pendingAccounts(String accountType) throws SQLException {
+        String primary = AccountsMigration.primaryTable(accountType);
+        String sql = "SELECT a.accountID FROM " + primary + " a " +
+                     "LEFT JOIN posting_runs p ON p.accountID = a.accountID AND p.period = ? " +
+                     "WHERE a.is_active = true AND p.accountID IS NULL" +
+                     (AccountsMigration.readsUnified() ? " AND a.account_type = ?" : "") +
+                     " ORDER BY a.accountID";
+        List<String> ids = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, period.toString());
+            if (AccountsMigration.readsUnified()) {
+                pstmt.setString(2, accountType);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static int bindIds(PreparedStatement pstmt, int index, List<String> accountIds) throws SQLException {
+        for (String id : accountIds) {
+            pstmt.setString(index++, id);
+        }
+        return index;
+    }
+
+    // Creates the claim table. Run from SchemaMigrations.
+    static void migrate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_SQL);
+        }
+    }
+
+    // Usage: MonthEndPostingEngine [yyyy-MM]   (defaults to the current month)
+    public static void main(String[] args) throws SQLException {
+        YearMonth period = args.length > 0 ? YearMonth.parse(args[0]) : YearMonth.now();
+        fromSystemProperties(period).run();
+    }
+}
@@ -0,0 +1,306 @@
+package EDP;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Integrity check of stored balances against the transactions table. Account tables
+// are walked in keyset pages of chunkSize IDs and each page is checked on a worker:
+// stored balance vs the opening balance plus the signed SUM of its transactions, IDs
+// stored twice in one table, and (legacy layout) IDs present in both savings_account and checkings_account.
+// The transactions table is then walked the same way for orphan rows whose account
+// exists in no account table. Only pages in flight are held in memory; discrepancies
+// are written to a CSV report in page order as pages complete.
+//
+// Opening deposits have no transaction row, so an account's opening balance is taken
+// from its earliest row, as that row's balanceAfter less its own amount. An account
+// with no transactions still holds its opening balance and has nothing to check.
+public class ReconciliationJob {
+    public enum Kind {
+        BALANCE_MISMATCH,       // stored balance differs from its opening balance plus transactions
+        DUPLICATE_IN_TABLE,     // accountID stored more than once in one table
+        DUPLICATE_ACROSS_TABLES,
+        ORPHAN_TRANSACTION      // transaction whose accountID is in no account table
+    }
+
+    static final class Discrepancy {
+        final Kind kind;
+        final String table;
+        final String accountId;
+        final String transactionId;
+        final Long stored;
+        final Long opening;
+        final Long transactionSum;
+        final long transactionCount;
+
+        Discrepancy(Kind kind, String table, String accountId, String transactionId,
+                    Long stored, Long opening, Long transactionSum, long transactionCount) {
+            this.kind = kind;
+            this.table = table;
+            this.accountId = accountId;
+            this.transactionId = transactionId;
+            this.stored = stored;
+            this.opening = opening;
+            this.transactionSum = transactionSum;
+            this.transactionCount = transactionCount;
+        }
+
+        String toCsv() {
+            return kind + "," + table + "," + accountId + "," + (transactionId == null ? "" : transactionId) + "," +
+                   amount(stored) + "," + amount(opening) + "," + amount(transactionSum) + "," + transactionCount + "," +
+                   (stored != null && opening != null && transactionSum != null
+                    ? Money.toDecimal(Money.subtract(stored, Money.add(opening, transactionSum))).toPlainString() : "");
+        }
+
+        private static String amount(Long centavos) {
+            return centavos == null ? "" : Money.toDecimal(centavos).toPlainString();
+        }
+    }
+
+    // Work from one page, merged into the totals on the calling thread
+    private static final class PageResult {
+        final List<Discrepancy> discrepancies = new ArrayList<>();
+        long accounts;
+        long transactions;
+    }
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final Map<Kind, Long> counts = new EnumMap<>(Kind.class);
+    private long accountsChecked;
+    private long transactionsCovered;
+
+    public ReconciliationJob(int parallelism, int chunkSize) {
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        for (Kind kind : Kind.values()) {
+            counts.put(kind, 0L);
+        }
+    }
+
+    // Builds a job from -Dbank.reconcile.* system properties.
+    public static ReconciliationJob fromSystemProperties() {
+        return new ReconciliationJob(
+                Integer.getInteger("bank.reconcile.parallelism", 4),
+                Integer.getInteger("bank.reconcile.chunkSize", 1_000));
+    }
+
+    // Writes the report and returns the number of discrepancies of each kind
+    public Map<Kind, Long> run(Path report) throws IOException, SQLException {
+        long start = System.nanoTime();
+        List<String> tables = accountTables();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try (BufferedWriter out = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            out.write("kind,table,accountID,transactionID,stored_balance,opening_balance,transaction_sum,transaction_count,difference");
+            out.newLine();
+            ArrayDeque<Future<PageResult>> inFlight = new ArrayDeque<>();
+            for (String table : tables) {
+                String other = tables.size() == 2 && table.equals(tables.get(0)) ? tables.get(1) : null;
+                String after = "";
+                String[] page;
+                while ((page = nextPage(table, after)) != null) {
+                    String first = page[0];
+                    String last = page[1];
+                    inFlight.add(workers.submit(() -> checkAccounts(table, other, first, last)));
+                    drain(inFlight, parallelism * 2, out);
+                    after = last;
+                }
+            }
+            String after = "";
+            String[] page;
+            while ((page = nextPage("transactions", after)) != null) {
+                String first = page[0];
+                String last = page[1];
+                inFlight.add(workers.submit(() -> checkOrphans(tables, first, last)));
+                drain(inFlight, parallelism * 2, out);
+                after = last;
+            }
+            drain(inFlight, 0, out);
+        } finally {
+            workers.shutdown();
+        }
+
+        long found = counts.values().stream().mapToLong(Long::longValue).sum();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Reconciled %d accounts and %d transactions in %.1f s (%.0f transactions/s): %d discrepancies %s%n",
+                          accountsChecked, transactionsCovered, seconds,
+                          seconds > 0 ? transactionsCovered / seconds : 0.0, found, counts);
+        if (found > 0) {
+            System.out.println("Discrepancies written to " + report);
+        }
+        return new EnumMap<>(counts);
+    }
+
+    // Waits for the oldest pages until at most limit are in flight
+    private void drain(ArrayDeque<Future<PageResult>> inFlight, int limit, BufferedWriter out) throws IOException, SQLException {
+        while (inFlight.size() > limit) {
+            PageResult result;
+            try {
+                result = inFlight.poll().get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof SQLException sql ? sql : new SQLException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Reconciliation interrupted", e);
+            }
+            accountsChecked += result.accounts;
+            transactionsCovered += result.transactions;
+            for (Discrepancy d : result.discrepancies) {
+                counts.merge(d.kind, 1L, Long::sum);
+                out.write(d.toCsv());
+                out.newLine();
+            }
+        }
+    }
+
+    // First and last distinct accountID of the next page after 'after', or null at the end
+    private String[] nextPage(String table, String after) throws SQLException {
+        String sql = "SELECT DISTINCT accountID FROM " + table + " WHERE accountID > ? ORDER BY accountID LIMIT ?";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, after);
+            pstmt.setInt(2, chunkSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                String first = null;
+                String last = null;
+                while (rs.next()) {
+                    last = rs.getString(1);
+                    if (first == null) {
+                        first = last;
+                    }
+                }
+                return first == null ? null : new String[] { first, last };
+            }
+        }
+    }
+
+    // Accounts of one table with accountID in [first, last]. Stored rows and transaction
+    // sums are read by two grouped queries and matched here, so a duplicated account
+    // row cannot multiply its transactions the way a join would. Both read one snapshot,
+    // so a transaction committed between them cannot show up as a mismatch.
+    private PageResult checkAccounts(String table, String otherTable, String first, String last) throws SQLException {
+        PageResult result = new PageResult();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            DatabaseUtil.beginSnapshot(conn);
+            // accountID -> { opening balance, signed sum, count }
+            Map<String, long[]> sums = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT t.accountID, SUM(" + BalanceCheckpoints.SIGNED_AMOUNT_SQL + "), COUNT(*), " +
+                    "       (SELECT f.balanceAfter - " + BalanceCheckpoints.SIGNED_AMOUNT_SQL + " FROM transactions f " +
+                    "        WHERE f.accountID = t.accountID ORDER BY f.date, f.transactionID LIMIT 1) " +
+                    "FROM transactions t JOIN (SELECT DISTINCT accountID FROM " + table + " WHERE accountID BETWEEN ? AND ?) a " +
+                    "ON a.accountID = t.accountID GROUP BY t.accountID")) {
+                pstmt.setString(1, first);
+                pstmt.setString(2, last);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        sums.put(rs.getString(1), new long[] { Money.read(rs, 4), Money.read(rs, 2), rs.getLong(3) });
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT accountID, COUNT(*), MIN(balance), MAX(balance) FROM " + table +
+                    " WHERE accountID BETWEEN ? AND ? GROUP BY accountID")) {
+                pstmt.setString(1, first);
+                pstmt.setString(2, last);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String accountId = rs.getString(1);
+                        long copies = rs.getLong(2);
+                        long lowest = Money.read(rs, 3);
+                        long highest = Money.read(rs, 4);
+                        long[] sum = sums.get(accountId);
+                        result.accounts++;
+                        if (copies > 1) {
+                            result.discrepancies.add(new Discrepancy(Kind.DUPLICATE_IN_TABLE, table, accountId, null, lowest,
+                                                                     sum == null ? null : sum[0], sum == null ? null : sum[1],
+                                                                     sum == null ? 0 : sum[2]));
+                        }
+                        if (sum == null) {
+                            continue;
+                        }
+                        result.transactions += sum[2];
+                        checkBalance(result, table, accountId, lowest, sum);
+                        if (highest != lowest) {
+                            checkBalance(result, table, accountId, highest, sum);
+                        }
+                    }
+                }
+            }
+            if (otherTable != null) {
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT DISTINCT a.accountID FROM " + table + " a JOIN " + otherTable + " o ON o.accountID = a.accountID " +
+                        "WHERE a.accountID BETWEEN ? AND ?")) {
+                    pstmt.setString(1, first);
+                    pstmt.setString(2, last);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            result.discrepancies.add(new Discrepancy(Kind.DUPLICATE_ACROSS_TABLES, table + "+" + otherTable,
+                                                                     rs.getString(1), null, null, null, null, 0));
+                        }
+                    }
+                }
+            }
+            conn.commit();
+        }
+        return result;
+    }
+
+    private static void checkBalance(PageResult result, String table, String accountId, long stored, long[] sum) {
+        if (stored != Money.add(sum[0], sum[1])) {
+            result.discrepancies.add(new Discrepancy(Kind.BALANCE_MISMATCH, table, accountId, null, stored, sum[0], sum[1], sum[2]));
+        }
+    }
+
+    // Transactions with accountID in [first, last] that belong to no account table
+    private PageResult checkOrphans(List<String> tables, String first, String last) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT t.transactionID, t.accountID, t.amount FROM transactions t " +
+                                              "WHERE t.accountID BETWEEN ? AND ?");
+        for (String table : tables) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM ").append(table).append(" a WHERE a.accountID = t.accountID)");
+        }
+        sql.append(" ORDER BY t.accountID, t.transactionID");
+        PageResult result = new PageResult();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            pstmt.setString(1, first);
+            pstmt.setString(2, last);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    result.discrepancies.add(new Discrepancy(Kind.ORPHAN_TRANSACTION, "transactions", rs.getString(2),
+                                                             rs.getString(1), null, null, Money.read(rs, 3), 1));
+                }
+            }
+        }
+        return result;
+    }
+
+    // The tables reads treat as authoritative in the current migration phase
+    private static List<String> accountTables() {
+        return AccountsMigration.readsUnified()
+               ? List.of(AccountsMigration.UNIFIED_TABLE)
+               : List.of("savings_account", "checkings_account");
+    }
+
+    // Usage: ReconciliationJob [report.csv]   exits with status 1 if anything was found
+    public static void main(String[] args) throws IOException, SQLException {
+        Path report = Paths.get(args.length > 0 ? args[0] : "reconciliation-" + LocalDate.now() + ".csv");
+        Map<Kind, Long> found = fromSystemProperties().run(report);
+        System.exit(found.values().stream().anyMatch(n -> n > 0) ? 1 : 0);
+    }
+}
@@ -0,0 +1,104 @@
+package EDP;
+
+import java.sql.*;
+
+// Schema changes the application expects to be in place, applied in order. Every
+// step is safe to re-run. Run once per release while no tellers are posting:
+//   java EDP.SchemaMigrations
+// The accounts table cut-over is phased and run separately, see AccountsMigration.
+public class SchemaMigrations {
+    public static void migrate() throws SQLException {
+        DashboardAggregates.migrate();
+        System.out.println("Schema migrations: dashboard_aggregates created and recomputed");
+        BalanceCheckpoints.migrate();
+        System.out.println("Schema migrations: balance_checkpoints created (BalanceCheckpoints backfills it)");
+        IdAllocator.migrate();
+        System.out.println("Schema migrations: id_sequences created");
+        MonthEndPostingEngine.migrate();
+        System.out.println("Schema migrations: posting_runs created");
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            // Keyset paging of history (getTransactionsPage) and per-account streams
+            addIndex(conn, "transactions", "idx_transactions_account_date", "accountID, date, transactionID");
+
+            // Money is exact centavos in code; legacy DOUBLE columns become DECIMAL(15,2)
+            toDecimal(conn, "savings_account", "balance");
+            toDecimal(conn, "checkings_account", "balance");
+            toDecimal(conn, "transactions", "amount");
+            toDecimal(conn, "transactions", "balanceAfter");
+
+            // TransactionIdGenerator writes 16-character IDs
+            widenId(conn, "transactions", "transactionID", 32);
+        }
+    }
+
+    private static void widenId(Connection conn, String table, String column, int length) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT CHARACTER_MAXIMUM_LENGTH FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, column);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getLong(1) >= length) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " MODIFY " + column + " VARCHAR(" + length + ") NOT NULL");
+        }
+        System.out.println("Schema migrations: " + table + "." + column + " widened to VARCHAR(" + length + ")");
+    }
+
+    // Keeps the column's nullability and default. MySQL rounds existing values to
+    // two places, half away from zero, as Money.read already does.
+    private static void toDecimal(Connection conn, String table, String column) throws SQLException {
+        boolean nullable;
+        String defaultValue;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT DATA_TYPE, IS_NULLABLE, COLUMN_DEFAULT FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, column);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getString(1).equalsIgnoreCase("decimal")) {
+                    return;
+                }
+                nullable = rs.getString(2).equalsIgnoreCase("YES");
+                defaultValue = rs.getString(3);
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " MODIFY " + column + " DECIMAL(15,2)"
+                         + (nullable ? " NULL" : " NOT NULL")
+                         + (defaultValue != null ? " DEFAULT " + Money.toDecimal(Money.parse(defaultValue)) : ""));
+        }
+        System.out.println("Schema migrations: " + table + "." + column + " converted to DECIMAL(15,2)");
+    }
+
+    private static void addIndex(Connection conn, String table, String index, String columns) throws SQLException {
+        if (hasIndex(conn, table, index)) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+        System.out.println("Schema migrations: index " + index + " added to " + table);
+    }
+
+    private static boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?")) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, index);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        migrate();
+    }
+}
@@ -0,0 +1,77 @@
+package EDP;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Startup work that used to block before the login window appeared. The window is
+// shown first; the pool warm-up, account load (then search index build) and the
+// dashboard aggregates prefetch (and, with -Dbank.ledger.enabled=true, the ledger
+// projection rebuild) run in parallel behind it. Each phase is timed,
+// along with time-to-first-frame measured from JVM start.
+public class StartupOrchestrator {
+    @FunctionalInterface
+    interface Phase {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Long> timingsMillis = new LinkedHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    // Call once the first window is visible
+    public void firstFrameShown() {
+        record("firstFrame (since JVM start)", ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    public CompletableFuture<Void> start(AccountRegistry registry) {
+        CompletableFuture<Boolean> pool = phase("poolWarmUp", () -> DatabaseUtil.getPool().warmUp());
+        // An index built from a failed load would answer every search with nothing; it
+        // stays cold instead, so searches keep going to SQL
+        CompletableFuture<Boolean> accounts = phase("loadAccounts", () -> registry.addAll(DatabaseUtil.readCustomerAccounts()))
+            .thenCompose(loaded -> phase("buildSearchIndex", () -> DatabaseUtil.getSearchIndex().build(registry, loaded)));
+        CompletableFuture<Boolean> aggregates = phase("prefetchDashboard", DashboardAggregates::read);
+        CompletableFuture<Boolean> ledger = DatabaseUtil.LEDGER_ENABLED
+            ? phase("rebuildLedger", () -> DatabaseUtil.getLedger().rebuild(Integer.getInteger("bank.ledger.parallelism", 4)))
+            : CompletableFuture.completedFuture(true);
+
+        return CompletableFuture.allOf(pool, accounts, aggregates, ledger).whenComplete((ignored, e) -> {
+            record("backgroundTotal", (System.nanoTime() - startNanos) / 1_000_000);
+            System.out.println("Startup timings (ms): " + getTimings());
+            executor.shutdown();
+        });
+    }
+
+    public Map<String, Long> getTimings() {
+        synchronized (timingsMillis) {
+            return new LinkedHashMap<>(timingsMillis);
+        }
+    }
+
+    // Runs one phase on its own virtual thread; completes with whether it succeeded. A
+    // failed phase is logged, not rethrown, so one slow or broken phase never holds up
+    // the others or the UI.
+    private CompletableFuture<Boolean> phase(String name, Phase work) {
+        return CompletableFuture.supplyAsync(() -> {
+            long t0 = System.nanoTime();
+            try {
+                work.run();
+                return true;
+            } catch (Exception e) {
+                System.err.println("Startup phase " + name + " failed: " + e.getMessage());
+                return false;
+            } finally {
+                record(name, (System.nanoTime() - t0) / 1_000_000);
+            }
+        }, executor);
+    }
+
+    private void record(String name, long millis) {
+        synchronized (timingsMillis) {
+            timingsMillis.put(name, millis);
+        }
+    }
+}
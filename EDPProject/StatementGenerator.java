@@ -0,0 +1,270 @@
+package EDP;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monthly account statements as paginated plain text. Transactions are streamed from
+// DatabaseUtil straight into the output file one line at a time, so memory use does
+// not grow with the size of the account history. Pages are separated by form feeds.
+// Month-end batch mode renders every active account in parallel.
+public class StatementGenerator {
+    private static final int LINES_PER_PAGE = Integer.getInteger("bank.statement.linesPerPage", 50);
+    private static final String RULE = "-".repeat(86);
+
+    public static final class Result {
+        public final String accountId;
+        public final long transactions;
+        public final int pages;
+        public final long closingBalance; // centavos
+        public final Path file;
+
+        Result(String accountId, long transactions, int pages, long closingBalance, Path file) {
+            this.accountId = accountId;
+            this.transactions = transactions;
+            this.pages = pages;
+            this.closingBalance = closingBalance;
+            this.file = file;
+        }
+    }
+
+    // Totals of one month-end run; failures are logged per account to stderr
+    public static final class MonthEndResult {
+        public final int written;
+        public final int failed;
+        public final long transactions;
+        public final long pages;
+
+        MonthEndResult(int written, int failed, long transactions, long pages) {
+            this.written = written;
+            this.failed = failed;
+            this.transactions = transactions;
+            this.pages = pages;
+        }
+    }
+
+    // Writes <dir>/<accountID>-<yyyy-MM>.txt for one account
+    public static Result generate(String accountId, YearMonth period, Path dir) throws IOException, SQLException {
+        CustomerAccount account = DatabaseUtil.getCustomerAccount(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + accountId);
+        }
+        Files.createDirectories(dir);
+        return generate(account, period, dir, null);
+    }
+
+    private static Result generate(CustomerAccount account, YearMonth period, Path dir, AtomicLong charsWritten)
+            throws IOException, SQLException {
+        Path file = dir.resolve(account.accountID + "-" + period + ".txt");
+        try (Writer out = new CountingWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), charsWritten)) {
+            Page page = new Page(out, account, period);
+            long[] count = new long[1];
+            try {
+                DatabaseUtil.streamTransactions(account.accountID, page.from, page.to, t -> {
+                    try {
+                        page.row(t);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            page.finish(count[0]);
+            return new Result(account.accountID, count[0], page.number, page.balance, file);
+        }
+    }
+
+    // Renders statements for every active account. Each worker holds one pooled
+    // connection while it streams, so keep parallelism within bank.pool.maxSize.
+    public static MonthEndResult runMonthEnd(YearMonth period, Path dir, int parallelism) throws IOException {
+        Files.createDirectories(dir);
+        long start = System.nanoTime();
+        AtomicLong chars = new AtomicLong();
+        List<CustomerAccount> accounts = new ArrayList<>();
+        for (CustomerAccount account : DatabaseUtil.loadCustomerAccounts()) {
+            if (account.is_active) {
+                accounts.add(account);
+            }
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        int statements = 0;
+        long transactions = 0;
+        long pages = 0;
+        int failed = 0;
+        try {
+            List<Future<Result>> results = new ArrayList<>(accounts.size());
+            for (CustomerAccount account : accounts) {
+                results.add(workers.submit(() -> generate(account, period, dir, chars)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    Result r = results.get(i).get();
+                    statements++;
+                    transactions += r.transactions;
+                    pages += r.pages;
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println("Statement for " + accounts.get(i).accountID + " failed: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = chars.get() / (1024.0 * 1024.0);
+        System.out.printf("Statements %s: %d written, %d failed, %d transactions, %d pages, %.1f MB in %.1f s " +
+                          "(%.0f statements/s, %.0f transactions/s, %.1f MB/s)%n",
+                          period, statements, failed, transactions, pages, megabytes, seconds,
+                          perSecond(statements, seconds), perSecond(transactions, seconds), perSecond(megabytes, seconds));
+        return new MonthEndResult(statements, failed, transactions, pages);
+    }
+
+    // A run over no accounts can finish within the timer's resolution
+    private static double perSecond(double amount, double seconds) {
+        return seconds > 0 ? amount / seconds : 0;
+    }
+
+    // Tracks the current page and running balance while rows stream through
+    private static final class Page {
+        final Writer out;
+        final CustomerAccount account;
+        final YearMonth period;
+        final Date from;
+        final Date to;
+        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        int number = 0;
+        int linesLeft = 0;
+        long balance;
+        long credits = Money.ZERO;
+        long debits = Money.ZERO;
+
+        Page(Writer out, CustomerAccount account, YearMonth period) throws SQLException {
+            this.out = out;
+            this.account = account;
+            this.period = period;
+            ZoneId zone = ZoneId.systemDefault();
+            this.from = Date.from(period.atDay(1).atStartOfDay(zone).toInstant());
+            this.to = Date.from(period.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+            this.balance = BalanceCheckpoints.balanceAsOf(account.accountID, from);
+        }
+
+        void row(Transaction t) throws IOException {
+            if (linesLeft == 0) {
+                header();
+            }
+            boolean debit = BalanceCheckpoints.isDebit(t.type);
+            if (debit) {
+                debits = Money.add(debits, t.amount);
+            } else {
+                credits = Money.add(credits, t.amount);
+            }
+            balance = t.balanceAfter;
+            out.write(String.format("%-20s %-12s %16s %16s  %s%n",
+                    dateFormat.format(t.date), t.type,
+                    (debit ? "-" : "") + Money.format(t.amount), Money.format(t.balanceAfter), t.transactionID));
+            linesLeft--;
+        }
+
+        void finish(long transactions) throws IOException {
+            if (number == 0) {
+                header();
+                out.write("No transactions this period." + System.lineSeparator());
+            }
+            out.write(RULE + System.lineSeparator());
+            out.write(String.format("%d transactions   Credits %s   Debits %s   Closing balance %s%n",
+                    transactions, Money.format(credits), Money.format(debits), Money.format(balance)));
+            out.write("End of statement" + System.lineSeparator());
+        }
+
+        private void header() throws IOException {
+            if (number > 0) {
+                out.write('\f');
+            }
+            number++;
+            linesLeft = LINES_PER_PAGE;
+            out.write(String.format("ITRUST ACCOUNT STATEMENT %61s%n", "Page " + number));
+            out.write(String.format("Account: %s (%s)   Customer: %s%n", account.accountID, account.accountType, account.customerID));
+            out.write(String.format("Name: %s %s%n", account.firstName, account.lastName));
+            out.write(String.format("Period: %s to %s%n", period.atDay(1), period.atEndOfMonth()));
+            if (number == 1) {
+                out.write(String.format("Opening balance: %s%n", Money.format(balance)));
+            }
+            out.write(RULE + System.lineSeparator());
+            out.write(String.format("%-20s %-12s %16s %16s  %s%n", "Date", "Type", "Amount", "Balance", "Transaction ID"));
+        }
+    }
+
+    private static final class CountingWriter extends FilterWriter {
+        private final AtomicLong counter;
+
+        CountingWriter(BufferedWriter out, AtomicLong counter) {
+            super(out);
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            super.write(c);
+            count(1);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            super.write(cbuf, off, len);
+            count(len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            super.write(str, off, len);
+            count(len);
+        }
+
+        private void count(int chars) {
+            if (counter != null) {
+                counter.addAndGet(chars);
+            }
+        }
+    }
+
+    // Usage: StatementGenerator yyyy-MM [outputDir]        every active account
+    //        StatementGenerator yyyy-MM outputDir accountID one account
+    public static void main(String[] args) throws Exception {
+        YearMonth period = args.length > 0 ? YearMonth.parse(args[0]) : YearMonth.now().minusMonths(1);
+        Path dir = Paths.get(args.length > 1 ? args[1] : System.getProperty("bank.statement.dir", "statements"));
+        if (args.length > 2) {
+            Result r = generate(args[2], period, dir);
+            System.out.println("Wrote " + r.file + " (" + r.transactions + " transactions, " + r.pages + " pages)");
+        } else {
+            MonthEndResult result = runMonthEnd(period, dir, Integer.getInteger("bank.statement.parallelism", 4));
+            if (result.failed > 0) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package EDP;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.JList;
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+// Typeahead for a search field: keystrokes are debounced, the lookup runs off the
+// EDT within AsyncDatabaseUtil's read bulkhead, and only the newest query may publish
+// to the suggestion list. An older lookup still in flight is abandoned, not
+// interrupted (that could break its pooled connection), and its result is dropped
+// by sequence number.
+public final class SuggestionTypeahead {
+    private final JTextField field;
+    private final JList<String> list;
+    private final int topN;
+    private final Timer debounce;
+
+    private CompletableFuture<List<CustomerAccount>> inFlight;
+    private List<CustomerAccount> shown = List.of();
+    private long generation = 0;
+    private long firstKeystrokeNanos = 0;
+    private boolean suppressed = false;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long lastLatencyNanos = 0;
+
+    public SuggestionTypeahead(JTextField field, JList<String> list, int topN, int debounceMillis) {
+        this.field = field;
+        this.list = list;
+        this.topN = topN;
+        this.debounce = new Timer(debounceMillis, e -> lookup());
+        this.debounce.setRepeats(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                keystroke();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                keystroke();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+    }
+
+    // Account behind the given suggestion row, or null
+    public CustomerAccount getSuggestion(int index) {
+        return index >= 0 && index < shown.size() ? shown.get(index) : null;
+    }
+
+    // Sets the field text without starting a lookup, e.g. after picking a suggestion
+    public void setTextQuietly(String text) {
+        suppressed = true;
+        try {
+            field.setText(text);
+        } finally {
+            suppressed = false;
+        }
+        cancelInFlight();
+        hide();
+    }
+
+    public void hide() {
+        list.setVisible(false);
+        shown = List.of();
+    }
+
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    // Time from the first keystroke of a burst to its suggestions appearing
+    public double getLastLatencyMillis() {
+        return lastLatencyNanos / 1_000_000.0;
+    }
+
+    public double getAverageLatencyMillis() {
+        long n = lookups.get();
+        return n == 0 ? 0.0 : totalLatencyNanos.get() / 1_000_000.0 / n;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    private void keystroke() {
+        if (suppressed) {
+            return;
+        }
+        if (firstKeystrokeNanos == 0) {
+            firstKeystrokeNanos = System.nanoTime();
+        }
+        cancelInFlight();
+        debounce.restart();
+    }
+
+    private void cancelInFlight() {
+        generation++;
+        if (inFlight != null && !inFlight.isDone()) {
+            inFlight.cancel(false);
+            cancelled.incrementAndGet();
+        }
+        inFlight = null;
+    }
+
+    private void lookup() {
+        String query = field.getText().trim();
+        long started = firstKeystrokeNanos;
+        firstKeystrokeNanos = 0;
+        if (query.isEmpty()) {
+            hide();
+            return;
+        }
+
+        long myGeneration = generation;
+        CompletableFuture<List<CustomerAccount>> search = AsyncDatabaseUtil.searchCustomerAccounts(query, topN);
+        inFlight = search;
+        search.whenCompleteAsync((accounts, error) -> {
+            if (myGeneration != generation) {
+                return;
+            }
+            inFlight = null;
+            if (error != null) {
+                hide();
+                return;
+            }
+            publishSuggestions(accounts);
+            long latency = System.nanoTime() - started;
+            lastLatencyNanos = latency;
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            lookups.incrementAndGet();
+        }, AsyncDatabaseUtil.EDT);
+    }
+
+    private void publishSuggestions(List<CustomerAccount> accounts) {
+        shown = accounts;
+        String[] rows = new String[accounts.size()];
+        for (int i = 0; i < rows.length; i++) {
+            CustomerAccount acc = accounts.get(i);
+            rows[i] = acc.accountID + " - " + acc.firstName + " " + acc.lastName
+                    + (acc.email == null ? "" : " (" + acc.email + ")");
+        }
+        list.setListData(rows);
+        list.setVisible(rows.length > 0);
+    }
+}
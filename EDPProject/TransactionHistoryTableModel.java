@@ -0,0 +1,114 @@
+package EDP;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.table.AbstractTableModel;
+
+// Transaction history for one account that loads keyset pages as the user scrolls.
+// Only the pages scrolled into view are ever fetched; each fetch runs off the EDT.
+public class TransactionHistoryTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMNS = { "Date", "Type", "Amount", "Balance After", "Transaction ID" };
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private final int pageSize;
+    private final transient List<Transaction> rows = new ArrayList<>();
+    private String accountId;
+    private boolean loading = false;
+    private boolean exhausted = true;
+    private int generation = 0;
+
+    public TransactionHistoryTableModel(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    // Starts over with a new account and loads its first page
+    public void showAccount(String accountId) {
+        generation++;
+        this.accountId = accountId;
+        rows.clear();
+        loading = false;
+        exhausted = false;
+        fireTableDataChanged();
+        loadNextPage();
+    }
+
+    // Fetches the next page once the scroll pane gets within a page of the bottom
+    public void attachTo(JScrollPane scrollPane) {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        bar.addAdjustmentListener(e -> {
+            int remaining = bar.getMaximum() - (bar.getValue() + bar.getVisibleAmount());
+            if (remaining <= bar.getVisibleAmount()) {
+                loadNextPage();
+            }
+        });
+    }
+
+    public void loadNextPage() {
+        if (loading || exhausted || accountId == null) {
+            return;
+        }
+        loading = true;
+        int myGeneration = generation;
+        Transaction last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        AsyncDatabaseUtil.getTransactionsPage(accountId,
+                last == null ? null : last.date,
+                last == null ? null : last.transactionID,
+                pageSize)
+            .whenCompleteAsync((page, error) -> {
+                if (myGeneration != generation) {
+                    return;
+                }
+                // Cleared on failure too, or no further page would ever be requested
+                loading = false;
+                if (error != null) {
+                    System.err.println("Transaction history page failed: " + AsyncDatabaseUtil.errorMessage(error));
+                    return;
+                }
+                if (page.size() < pageSize) {
+                    exhausted = true;
+                }
+                if (!page.isEmpty()) {
+                    int first = rows.size();
+                    rows.addAll(page);
+                    fireTableRowsInserted(first, rows.size() - 1);
+                }
+            }, AsyncDatabaseUtil.EDT);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Transaction t = rows.get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                return t.date == null ? "" : dateFormat.format(t.date);
+            case 1:
+                return t.type;
+            case 2:
+                return Money.format(t.amount);
+            case 3:
+                return Money.format(t.balanceAfter);
+            default:
+                return t.transactionID;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package EDP;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Time-ordered transaction IDs: 41 bits of milliseconds since 2024-01-01, 10 bits of
+// node ID and a 12-bit per-millisecond sequence, written as "TRN" + 13 fixed-width
+// upper-case base-36 digits. String order is numeric order, so new rows always land
+// at the right edge of the transactions primary key instead of at random pages.
+// Unique across instances as long as each one runs with its own -Dbank.node.id (0-1023).
+// Without it the node is derived from the host and process ID, which keeps a few
+// instances apart but can still collide; set it wherever several instances write.
+// The IDs are 16 characters; SchemaMigrations widens transactions.transactionID to fit.
+public final class TransactionIdGenerator {
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final int WIDTH = 13;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private static final TransactionIdGenerator DEFAULT = new TransactionIdGenerator(configuredNode());
+
+    private final long node;
+    // (timestamp << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TransactionIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("bank.node.id must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public static String nextTransactionId() {
+        return DEFAULT.nextString();
+    }
+
+    // Lock-free: a CAS on one word. When the sequence of the current millisecond runs
+    // out, or the wall clock steps backwards, the generator moves on to the next
+    // logical millisecond instead of spinning or waiting, so IDs stay strictly increasing.
+    public long next() {
+        while (true) {
+            long previous = last.get();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long next;
+            if (now > previousMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = previous + 1;
+            } else {
+                next = (previousMillis + 1) << SEQUENCE_BITS;
+            }
+            if (last.compareAndSet(previous, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & MAX_SEQUENCE;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    public String nextString() {
+        return format(next());
+    }
+
+    static long configuredNode() {
+        Integer configured = Integer.getInteger("bank.node.id");
+        if (configured != null) {
+            return configured;
+        }
+        long node = derivedNode();
+        System.err.println("bank.node.id not set; using node " + node + " derived from host and process ID");
+        return node;
+    }
+
+    // Hardware address of the first non-loopback interface (host name if there is none),
+    // mixed with the PID so instances on one machine differ too.
+    private static long derivedNode() {
+        byte[] host = null;
+        try {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (host == null && interfaces != null && interfaces.hasMoreElements()) {
+                NetworkInterface nic = interfaces.nextElement();
+                if (!nic.isLoopback()) {
+                    host = nic.getHardwareAddress();
+                }
+            }
+            if (host == null) {
+                host = InetAddress.getLocalHost().getHostName().getBytes(StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            host = new byte[0];
+        }
+        long h = Arrays.hashCode(host) * 0x9E3779B97F4A7C15L + ProcessHandle.current().pid();
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h & MAX_NODE;
+    }
+
+    static String format(long id) {
+        char[] chars = new char[3 + WIDTH];
+        chars[0] = 'T';
+        chars[1] = 'R';
+        chars[2] = 'N';
+        for (int i = chars.length - 1; i >= 3; i--) {
+            chars[i] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,451 @@
+package EDP;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+// Local write-ahead journal for the transactions table, on a memory-mapped file.
+// TransactionWriter appends (and forces to disk) every transaction here before
+// queueing it, so a row survives a MySQL outage or a crash. Everything before the
+// applied offset is known to be in MySQL; a background replayer drains the rest with
+// an insert that leaves an existing row untouched, so a row is stored once no matter
+// how often it is replayed. The file is locked while open: a second process pointed
+// at the same journal runs without one instead of replaying alongside the first.
+//
+// Off unless -Dbank.journal.path names a file. Deposits and withdrawals commit in one
+// DB transaction through DatabaseUtil.postTransaction, which needs neither the writer
+// nor this journal; only DatabaseUtil.saveTransaction queues rows here, and nothing in
+// the application calls it today.
+//
+// Layout: a 64-byte header (magic, generation, applied offset) followed by records of
+// [payload length][CRC32 of generation + payload][generation][payload]. Once every
+// record is applied the file wraps to the start under a new generation; recovery stops
+// at the first record whose length, generation or checksum does not match.
+public class TransactionJournal implements Closeable {
+    private static final int MAGIC = 0x54524A31; // "TRJ1"
+    private static final int HEADER_SIZE = 64;
+    private static final int GENERATION_AT = 4;
+    private static final int APPLIED_AT = 8;
+    private static final int RECORD_HEADER = 12;
+    private static final String REPLAY_SQL = "INSERT INTO transactions (transactionID, accountID, type, amount, balanceAfter, date) VALUES (?, ?, ?, ?, ?, ?) " +
+                                             "ON DUPLICATE KEY UPDATE transactionID = transactionID";
+
+    // One journaled row and where it sits in the file
+    static final class Entry {
+        final Transaction transaction;
+        final String accountID;
+        final long start;
+        final long end;
+
+        Entry(Transaction transaction, String accountID, long start, long end) {
+            this.transaction = transaction;
+            this.accountID = accountID;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int replayBatchSize;
+    private final Thread replayer;
+    private final Object wakeUp = new Object();
+    private volatile boolean running = true;
+
+    // Written under this: the append position and the current generation
+    private volatile int generation;
+    private long appendOffset;
+
+    // Guarded by pointerLock: rows before applied are in MySQL; rows before processed
+    // have been through the writer once (committed or not)
+    private final Object pointerLock = new Object();
+    private long applied;
+    private long processed;
+
+    private TransactionJournal(Path path, int capacity, int replayBatchSize, long replayMillis) throws IOException {
+        this.path = path;
+        this.replayBatchSize = replayBatchSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        lock(channel, path);
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+        recover();
+        this.replayer = new Thread(() -> replayLoop(replayMillis), "transaction-journal-replayer");
+        this.replayer.setDaemon(true);
+        this.replayer.start();
+    }
+
+    // Opens (or creates) the journal named by -Dbank.journal.*; null when journaling is off
+    public static TransactionJournal fromSystemProperties() {
+        String file = System.getProperty("bank.journal.path", "");
+        if (file.isEmpty()) {
+            return null;
+        }
+        try {
+            return new TransactionJournal(Paths.get(file),
+                    Integer.getInteger("bank.journal.sizeMb", 64) * 1024 * 1024,
+                    Integer.getInteger("bank.journal.replayBatchSize", 500),
+                    Long.getLong("bank.journal.replayMs", 2_000L));
+        } catch (IOException e) {
+            System.err.println("Transaction journal disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Exclusive for the life of the channel; closing the channel releases it
+    private static void lock(FileChannel channel, Path path) throws IOException {
+        String holder = null;
+        try {
+            if (channel.tryLock() == null) {
+                holder = "another process";
+            }
+        } catch (OverlappingFileLockException e) {
+            holder = "this process";
+        }
+        if (holder != null) {
+            channel.close();
+            throw new IOException(path + " is already open in " + holder);
+        }
+    }
+
+    // Appends one record and forces it to disk. The caller must hand records to the
+    // writer in append order, so hold this journal's monitor across append and enqueue.
+    // Every append waits for its own force under that monitor, so journaled throughput
+    // is capped at one disk flush per row (a few thousand rows/s on SSD, far fewer on
+    // spinning disks).
+    synchronized Entry append(Transaction t, String accountID) throws IOException {
+        byte[] payload = encode(t, accountID);
+        int size = RECORD_HEADER + payload.length;
+        if (appendOffset + size > map.capacity()) {
+            wrapIfDrained();
+            if (appendOffset + size > map.capacity()) {
+                throw new IOException("Transaction journal " + path + " is full; " +
+                                      (appendOffset - appliedOffset()) + " bytes await replay");
+            }
+        }
+        int at = (int) appendOffset;
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(4).putInt(0, generation));
+        crc.update(payload);
+        map.putInt(at, payload.length);
+        map.putInt(at + 4, (int) crc.getValue());
+        map.putInt(at + 8, generation);
+        map.put(at + RECORD_HEADER, payload);
+        map.force(at, size);
+        appendOffset = at + size;
+        return new Entry(t, accountID, at, appendOffset);
+    }
+
+    // Writer committed [start, end). Only moves the applied offset if nothing before it is outstanding.
+    void markApplied(long start, long end) {
+        synchronized (pointerLock) {
+            if (applied == start) {
+                setApplied(end);
+            }
+            processed = Math.max(processed, end);
+        }
+    }
+
+    // Writer gave up on [start, end); the replayer picks it up from the applied offset
+    void markFailed(long end) {
+        synchronized (pointerLock) {
+            processed = Math.max(processed, end);
+        }
+        synchronized (wakeUp) {
+            wakeUp.notify();
+        }
+    }
+
+    public long getPendingBytes() {
+        synchronized (pointerLock) {
+            return processed - applied;
+        }
+    }
+
+    // Replays everything between the applied and processed offsets. Returns rows inserted.
+    public long replay() throws SQLException {
+        long inserted = 0;
+        while (true) {
+            long from;
+            long to;
+            synchronized (pointerLock) {
+                from = applied;
+                to = processed;
+            }
+            if (from >= to) {
+                return inserted;
+            }
+            List<Entry> batch = read(from, to, replayBatchSize);
+            if (batch.isEmpty()) {
+                throw new SQLException("Journal " + path + " is unreadable at offset " + from);
+            }
+            inserted += replayBatch(batch);
+            synchronized (pointerLock) {
+                // A concurrent replay() may already have moved past this batch
+                if (applied == from) {
+                    setApplied(batch.get(batch.size() - 1).end);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        synchronized (wakeUp) {
+            wakeUp.notify();
+        }
+        try {
+            replayer.join(5_000);
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Closing transaction journal failed: " + e.getMessage());
+        }
+    }
+
+    private void replayLoop(long replayMillis) {
+        String lastError = null;
+        while (running) {
+            try {
+                synchronized (wakeUp) {
+                    wakeUp.wait(replayMillis);
+                }
+                if (getPendingBytes() > 0) {
+                    long inserted = replay();
+                    System.err.println("Transaction journal replayed: " + inserted + " rows inserted");
+                }
+                lastError = null;
+            } catch (InterruptedException e) {
+                return;
+            } catch (SQLException e) {
+                // Usually the database is still unreachable; report once and retry next round
+                if (!Objects.equals(e.getMessage(), lastError)) {
+                    System.err.println("Transaction journal replay deferred: " + e.getMessage());
+                    lastError = e.getMessage();
+                }
+            }
+        }
+    }
+
+    // A batch the database refuses is retried row by row. Rows it rejects outright
+    // (TransactionWriter.isRejectedRow) are logged and dropped, since replaying them
+    // would only fail again and hold back every row behind them; any other error
+    // leaves the batch for the next round.
+    private long replayBatch(List<Entry> batch) throws SQLException {
+        try {
+            return insert(batch);
+        } catch (SQLException e) {
+            long inserted = 0;
+            for (Entry entry : batch) {
+                try {
+                    inserted += insert(List.of(entry));
+                } catch (SQLException rowError) {
+                    if (!TransactionWriter.isRejectedRow(rowError)) {
+                        throw rowError;
+                    }
+                    System.err.println("Transaction journal dropped " + entry.transaction.transactionID +
+                                       " for " + entry.accountID + ": " + rowError.getMessage());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    // Rows the writer may already have stored are left as they are by the no-op update.
+    // A row counts as new when its update count is 1 (2 or 0 for an existing row; per-row
+    // counts need rewriteBatchedStatements off, the driver default) and it was not there
+    // before: Connector/J reports found rows unless useAffectedRows=true, and then an
+    // existing row counts 1 as well. Only new rows reach the aggregates and checkpoints.
+    private long insert(List<Entry> batch) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(REPLAY_SQL)) {
+                Set<String> stored = storedIds(conn, batch);
+                for (Entry e : batch) {
+                    pstmt.setString(1, e.transaction.transactionID);
+                    pstmt.setString(2, e.accountID);
+                    pstmt.setString(3, e.transaction.type);
+                    Money.bind(pstmt, 4, e.transaction.amount);
+                    Money.bind(pstmt, 5, e.transaction.balanceAfter);
+                    pstmt.setTimestamp(6, new Timestamp(e.transaction.date.getTime()));
+                    pstmt.addBatch();
+                }
+                int[] counts = pstmt.executeBatch();
+                List<Transaction> inserted = new ArrayList<>();
+                List<String> accounts = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 1 && !stored.contains(batch.get(i).transaction.transactionID)) {
+                        inserted.add(batch.get(i).transaction);
+                        accounts.add(batch.get(i).accountID);
+                    }
+                }
+                if (!inserted.isEmpty()) {
+                    DashboardAggregates.recordTransactions(conn, accounts, inserted);
+                    BalanceCheckpoints.record(conn, accounts, inserted);
+                }
+                conn.commit();
+                DatabaseUtil.fireTransactionsPosted(accounts, inserted);
+                return inserted.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // IDs of the batch already in the transactions table, locked until the caller commits
+    private static Set<String> storedIds(Connection conn, List<Entry> batch) throws SQLException {
+        String marks = String.join(", ", Collections.nCopies(batch.size(), "?"));
+        Set<String> stored = new HashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT transactionID FROM transactions WHERE transactionID IN (" + marks + ") FOR UPDATE")) {
+            for (int i = 0; i < batch.size(); i++) {
+                pstmt.setString(i + 1, batch.get(i).transaction.transactionID);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    stored.add(rs.getString(1));
+                }
+            }
+        }
+        return stored;
+    }
+
+    // Up to max valid records starting at from and ending at or before to
+    private List<Entry> read(long from, long to, int max) {
+        List<Entry> entries = new ArrayList<>();
+        long at = from;
+        int gen = generation;
+        while (at < to && entries.size() < max) {
+            Entry e = readRecord(at, gen);
+            if (e == null) {
+                break;
+            }
+            entries.add(e);
+            at = e.end;
+        }
+        return entries;
+    }
+
+    private Entry readRecord(long offset, int gen) {
+        int at = (int) offset;
+        if (at + RECORD_HEADER > map.capacity()) {
+            return null;
+        }
+        int length = map.getInt(at);
+        if (length <= 0 || at + RECORD_HEADER + length > map.capacity() || map.getInt(at + 8) != gen) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        map.get(at + RECORD_HEADER, payload);
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(4).putInt(0, gen));
+        crc.update(payload);
+        if ((int) crc.getValue() != map.getInt(at + 4)) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        String transactionID = getString(in);
+        String accountID = getString(in);
+        String type = getString(in);
+        long amount = in.getLong();
+        long balanceAfter = in.getLong();
+        Date date = new Date(in.getLong());
+        return new Entry(new Transaction(transactionID, type, amount, balanceAfter, date),
+                         accountID, offset, at + RECORD_HEADER + length);
+    }
+
+    // Reads the header and scans forward to the end of the last intact record
+    private void recover() throws IOException {
+        if (map.getInt(0) != MAGIC) {
+            generation = 1;
+            map.putInt(0, MAGIC);
+            map.putInt(GENERATION_AT, generation);
+            map.putLong(APPLIED_AT, HEADER_SIZE);
+            map.putInt(HEADER_SIZE, 0);
+            map.force();
+        }
+        generation = map.getInt(GENERATION_AT);
+        long start = map.getLong(APPLIED_AT);
+        if (start < HEADER_SIZE || start > map.capacity()) {
+            throw new IOException("Corrupt transaction journal header in " + path);
+        }
+        long end = HEADER_SIZE;
+        while (true) {
+            Entry e = readRecord(end, generation);
+            if (e == null) {
+                break;
+            }
+            end = e.end;
+        }
+        appendOffset = end;
+        applied = Math.min(start, end);
+        // Rows left from before the restart never reached the writer; the replayer owns them
+        processed = end;
+    }
+
+    // Called with this held. Wraps to the start once every record has been applied.
+    private void wrapIfDrained() {
+        synchronized (pointerLock) {
+            if (applied != appendOffset || processed != appendOffset) {
+                return;
+            }
+            generation++;
+            map.putInt(GENERATION_AT, generation);
+            map.putLong(APPLIED_AT, HEADER_SIZE);
+            map.force(0, HEADER_SIZE);
+            appendOffset = HEADER_SIZE;
+            applied = HEADER_SIZE;
+            processed = HEADER_SIZE;
+        }
+    }
+
+    // Called with pointerLock held
+    private void setApplied(long offset) {
+        applied = offset;
+        map.putLong(APPLIED_AT, offset);
+        map.force(APPLIED_AT, 8);
+    }
+
+    private long appliedOffset() {
+        synchronized (pointerLock) {
+            return applied;
+        }
+    }
+
+    private static byte[] encode(Transaction t, String accountID) {
+        byte[] id = t.transactionID.getBytes(StandardCharsets.UTF_8);
+        byte[] account = accountID.getBytes(StandardCharsets.UTF_8);
+        byte[] type = t.type.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(6 + id.length + account.length + type.length + 24);
+        out.putShort((short) id.length).put(id);
+        out.putShort((short) account.length).put(account);
+        out.putShort((short) type.length).put(type);
+        out.putLong(t.amount).putLong(t.balanceAfter).putLong(t.date.getTime());
+        return out.array();
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
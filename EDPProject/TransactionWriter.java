@@ -0,0 +1,304 @@
+package EDP;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Background writer for the transactions table. Callers enqueue and get a future;
+// one thread drains the queue into JDBC batches and commits each batch once
+// (group commit), so the Swing thread never waits on an INSERT.
+// With a TransactionJournal every row is journaled to local disk before it is queued;
+// a batch that fails to commit is then left to the journal's replayer instead of lost.
+public final class TransactionWriter {
+    private static final String INSERT_SQL = "INSERT INTO transactions (transactionID, accountID, type, amount, balanceAfter, date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final BlockingQueue<Pending> queue;
+    private final TransactionJournal journal;
+    private final int flushSize;
+    private final long lingerNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final AtomicLong batchesCommitted = new AtomicLong();
+    private final AtomicLong transactionsWritten = new AtomicLong();
+    private final AtomicLong transactionsFailed = new AtomicLong();
+    private final AtomicLong transactionsDeferred = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+
+    public TransactionWriter(int queueCapacity, int flushSize, long lingerMillis) {
+        this(queueCapacity, flushSize, lingerMillis, null);
+    }
+
+    public TransactionWriter(int queueCapacity, int flushSize, long lingerMillis, TransactionJournal journal) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.journal = journal;
+        this.flushSize = flushSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.worker = new Thread(this::run, "transaction-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(5_000)));
+    }
+
+    // Builds a writer from -Dbank.writer.* system properties, journaled per -Dbank.journal.*
+    public static TransactionWriter fromSystemProperties() {
+        return new TransactionWriter(
+                Integer.getInteger("bank.writer.queueCapacity", 1024),
+                Integer.getInteger("bank.writer.flushSize", 100),
+                Long.getLong("bank.writer.lingerMs", 5L),
+                TransactionJournal.fromSystemProperties());
+    }
+
+    // Blocks only when the queue is full, which pushes back on callers instead of dropping rows.
+    public CompletableFuture<Void> submit(Transaction transaction, String accountID) {
+        Pending pending = new Pending(transaction, accountID);
+        if (!running) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Transaction writer is shut down"));
+            return pending.future;
+        }
+        try {
+            if (journal == null) {
+                enqueue(pending);
+            } else {
+                // Queue order must match journal order, see TransactionJournal.append
+                synchronized (journal) {
+                    pending.entry = journal.append(transaction, accountID);
+                    enqueue(pending);
+                }
+            }
+        } catch (IOException e) {
+            pending.future.completeExceptionally(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    // A plain put() could block forever on a full queue once the worker is gone, and a row
+    // that lands after the worker's last poll would never complete; both are caught here.
+    private void enqueue(Pending pending) throws InterruptedException {
+        while (!queue.offer(pending, 100, TimeUnit.MILLISECONDS)) {
+            if (!running) {
+                refuse(pending);
+                return;
+            }
+        }
+        if (!running && queue.remove(pending)) {
+            refuse(pending);
+        }
+    }
+
+    private void refuse(Pending pending) {
+        if (pending.entry != null) {
+            // Already journaled; the replay after the next start inserts it
+            transactionsDeferred.incrementAndGet();
+            pending.future.complete(null);
+        } else {
+            pending.future.completeExceptionally(new RejectedExecutionException("Transaction writer is shut down"));
+        }
+    }
+
+    // Stops accepting work and waits up to timeoutMillis for queued rows to be written.
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            worker.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    public long getBatchesCommitted() {
+        return batchesCommitted.get();
+    }
+
+    public long getTransactionsWritten() {
+        return transactionsWritten.get();
+    }
+
+    public long getTransactionsFailed() {
+        return transactionsFailed.get();
+    }
+
+    // Rows that missed their commit but are safe in the journal awaiting replay
+    public long getTransactionsDeferred() {
+        return transactionsDeferred.get();
+    }
+
+    public long getLargestBatch() {
+        return largestBatch.get();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchesCommitted.get();
+        return batches == 0 ? 0.0 : (double) transactionsWritten.get() / batches;
+    }
+
+    public double getAverageCommitMillis() {
+        long batches = batchesCommitted.get();
+        return batches == 0 ? 0.0 : totalCommitNanos.get() / 1_000_000.0 / batches;
+    }
+
+    public double getMaxCommitMillis() {
+        return maxCommitNanos.get() / 1_000_000.0;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Linger briefly so rows arriving together share one commit
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < flushSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // A batch the database refuses is retried row by row, so only the bad rows fail.
+    // Once a row fails for a reason other than its data (connection lost, lock wait),
+    // the rest of the batch is not retried: with a journal it is left to the replayer,
+    // without one it fails with that error.
+    private void flush(List<Pending> batch) {
+        SQLException deferred = null;
+        try {
+            insert(batch);
+        } catch (SQLException e) {
+            for (Pending p : batch) {
+                if (deferred != null) {
+                    giveUp(p, deferred);
+                    continue;
+                }
+                try {
+                    insert(List.of(p));
+                } catch (SQLException rowError) {
+                    if (isRejectedRow(rowError)) {
+                        transactionsFailed.incrementAndGet();
+                        p.future.completeExceptionally(rowError);
+                    } else {
+                        deferred = rowError;
+                        giveUp(p, rowError);
+                    }
+                }
+            }
+        }
+        if (journal != null) {
+            long end = batch.get(batch.size() - 1).entry.end;
+            if (deferred == null) {
+                // Rejected rows count as done too; replaying them would only fail again
+                journal.markApplied(batch.get(0).entry.start, end);
+            } else {
+                journal.markFailed(end);
+            }
+        }
+    }
+
+    private void insert(List<Pending> rows) throws SQLException {
+        long start = System.nanoTime();
+        List<Transaction> written = new ArrayList<>(rows.size());
+        List<String> accounts = new ArrayList<>(rows.size());
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                for (Pending p : rows) {
+                    written.add(p.transaction);
+                    accounts.add(p.accountID);
+                    pstmt.setString(1, p.transaction.transactionID);
+                    pstmt.setString(2, p.accountID);
+                    pstmt.setString(3, p.transaction.type);
+                    Money.bind(pstmt, 4, p.transaction.amount);
+                    Money.bind(pstmt, 5, p.transaction.balanceAfter);
+                    pstmt.setTimestamp(6, new java.sql.Timestamp(p.transaction.date.getTime()));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                DashboardAggregates.recordTransactions(conn, accounts, written);
+                BalanceCheckpoints.record(conn, accounts, written);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        DatabaseUtil.fireTransactionsPosted(accounts, written);
+
+        long elapsed = System.nanoTime() - start;
+        batchesCommitted.incrementAndGet();
+        transactionsWritten.addAndGet(rows.size());
+        totalCommitNanos.addAndGet(elapsed);
+        maxCommitNanos.accumulateAndGet(elapsed, Math::max);
+        largestBatch.accumulateAndGet(rows.size(), Math::max);
+        for (Pending p : rows) {
+            p.future.complete(null);
+        }
+    }
+
+    private void giveUp(Pending p, SQLException e) {
+        if (journal != null) {
+            // Already durable locally; the replayer inserts it once the DB is back
+            transactionsDeferred.incrementAndGet();
+            p.future.complete(null);
+        } else {
+            transactionsFailed.incrementAndGet();
+            p.future.completeExceptionally(e);
+        }
+    }
+
+    // True when the database refused the row itself (bad data, constraint violation),
+    // so trying it again, now or on replay, cannot succeed.
+    static boolean isRejectedRow(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLIntegrityConstraintViolationException || e instanceof SQLDataException
+                || (state != null && (state.startsWith("22") || state.startsWith("23")));
+    }
+
+    private static final class Pending {
+        final Transaction transaction;
+        final String accountID;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        TransactionJournal.Entry entry;
+
+        Pending(Transaction transaction, String accountID) {
+            this.transaction = transaction;
+            this.accountID = accountID;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package EDP;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+// Embedded H2 database in MySQL mode standing in for bank_system, so DatabaseUtil can
+// be benchmarked without a MySQL server. configure() must run before DatabaseUtil is
+// first touched: the pool reads -Dbank.db.* once, when the class initialises.
+//
+// H2 does not parse MySQL's "BINARY col = ?", which loadBankUsers and the legacy read
+// queries use. H2 already compares strings case-sensitively, so the pool connects
+// through BinaryStrippingDriver, which drops the keyword and leaves the rest of the SQL
+// as production sends it. Its plain comparisons can use an index where MySQL's BINARY
+// form scans, so the accounts phase is UNIFIED: the legacy lookups would not measure
+// what production (LEGACY) does. BenchmarkRunner records the phase with each run. The
+// legacy tables are still created and seeded (writes reach them in this phase), and
+// accounts is filled from them.
+final class BenchmarkDatabase {
+    static final String PHASE = "UNIFIED";
+    static final int ACCOUNTS = Integer.getInteger("bank.bench.accounts", 10_000);
+    static final int TRANSACTIONS_PER_ACCOUNT = Integer.getInteger("bank.bench.transactionsPerAccount", 20);
+    static final int USERS = 50;
+
+    private static final String ACCOUNT_COLUMNS =
+        "  accountID VARCHAR(32) NOT NULL PRIMARY KEY," +
+        "  customerID VARCHAR(32) NOT NULL," +
+        "  firstName VARCHAR(100), middleName VARCHAR(100), lastName VARCHAR(100)," +
+        "  birthDate DATE, age INT," +
+        "  street VARCHAR(150), barangay VARCHAR(100), municipality VARCHAR(100), provinceCity VARCHAR(100)," +
+        "  zip VARCHAR(10), phone VARCHAR(20), email VARCHAR(150), gender VARCHAR(10)," +
+        "  balance DECIMAL(15,2) NOT NULL DEFAULT 0," +
+        "  is_active BOOLEAN NOT NULL DEFAULT TRUE";
+
+    private static boolean seeded = false;
+    private static boolean driverRegistered = false;
+
+    private BenchmarkDatabase() {
+    }
+
+    static void configure() throws SQLException {
+        if (!driverRegistered) {
+            DriverManager.registerDriver(new BinaryStrippingDriver());
+            driverRegistered = true;
+        }
+        System.setProperty("bank.db.url", BinaryStrippingDriver.PREFIX + "h2:mem:bank_system;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        System.setProperty("bank.db.user", "sa");
+        System.setProperty("bank.db.password", "");
+        System.setProperty("bank.accounts.phase", PHASE);
+        // H2 rejects the MySQL streaming fetch size
+        System.setProperty("bank.history.fetchSize", "500");
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    // Creates and fills the schema once per JVM (each JMH fork is its own JVM)
+    static synchronized void seed() throws SQLException {
+        if (seeded) {
+            return;
+        }
+        configure();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("CREATE TABLE savings_account (" + ACCOUNT_COLUMNS + ")");
+            stmt.execute("CREATE TABLE checkings_account (" + ACCOUNT_COLUMNS + ")");
+            stmt.execute("CREATE TABLE accounts (" + ACCOUNT_COLUMNS + ", account_type VARCHAR(20) NOT NULL)");
+            stmt.execute("CREATE INDEX idx_accounts_customer ON accounts (customerID)");
+            stmt.execute("CREATE TABLE transactions (" +
+                         "  transactionID VARCHAR(32) NOT NULL PRIMARY KEY," +
+                         "  accountID VARCHAR(32) NOT NULL," +
+                         "  type VARCHAR(20) NOT NULL," +
+                         "  amount DECIMAL(15,2) NOT NULL," +
+                         "  balanceAfter DECIMAL(15,2) NOT NULL," +
+                         "  date DATETIME NOT NULL)");
+            stmt.execute("CREATE INDEX idx_transactions_account_date ON transactions (accountID, date, transactionID)");
+            stmt.execute("CREATE TABLE bank_users (" +
+                         "  username VARCHAR(50) NOT NULL PRIMARY KEY," +
+                         "  password VARCHAR(100) NOT NULL," +
+                         "  role VARCHAR(20) NOT NULL," +
+                         "  name VARCHAR(100)," +
+                         "  EmpID VARCHAR(20)," +
+                         "  is_active BOOLEAN NOT NULL DEFAULT TRUE)");
+
+            Random random = new Random(42);
+            insertUsers(conn);
+            insertAccounts(conn, "savings_account", 0, random);
+            insertAccounts(conn, "checkings_account", 1, random);
+            stmt.execute("INSERT INTO accounts SELECT s.*, 'Savings Account' FROM savings_account s");
+            stmt.execute("INSERT INTO accounts SELECT c.*, 'Checking Account' FROM checkings_account c");
+            insertTransactions(conn, random);
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+        // As SchemaMigrations would, so writes keep the dashboard totals up to date
+        DashboardAggregates.migrate();
+        seeded = true;
+    }
+
+    static String accountId(int i) {
+        return String.format("AC%010d", i);
+    }
+
+    static String customerId(int i) {
+        return String.format("CU%010d", i / 2);
+    }
+
+    static String username(int i) {
+        return "teller" + i;
+    }
+
+    private static void insertUsers(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO bank_users (username, password, role, name, EmpID, is_active) VALUES (?, ?, ?, ?, ?, TRUE)")) {
+            for (int i = 0; i < USERS; i++) {
+                pstmt.setString(1, username(i));
+                pstmt.setString(2, "Secret" + i);
+                pstmt.setString(3, i % 10 == 0 ? "Manager" : "Teller");
+                pstmt.setString(4, "Employee " + i);
+                pstmt.setString(5, String.format("EMP%04d", i));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Even-numbered accounts are savings, odd ones checking
+    private static void insertAccounts(Connection conn, String table, int parity, Random random) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO " + table + " (accountID, customerID, firstName, middleName, lastName, birthDate, age, " +
+                "street, barangay, municipality, provinceCity, zip, phone, email, gender, balance, is_active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = parity; i < ACCOUNTS; i += 2) {
+                pstmt.setString(1, accountId(i));
+                pstmt.setString(2, customerId(i));
+                pstmt.setString(3, "First" + i);
+                pstmt.setString(4, "M");
+                pstmt.setString(5, "Last" + (i % 997));
+                pstmt.setDate(6, Date.valueOf("1990-01-01"));
+                pstmt.setInt(7, 35);
+                pstmt.setString(8, i + " Rizal St");
+                pstmt.setString(9, "Barangay " + (i % 50));
+                pstmt.setString(10, "Municipality " + (i % 20));
+                pstmt.setString(11, "Province " + (i % 10));
+                pstmt.setString(12, "1000");
+                pstmt.setString(13, String.format("09%09d", i));
+                pstmt.setString(14, "user" + i + "@mail.com");
+                pstmt.setString(15, i % 2 == 0 ? "Female" : "Male");
+                pstmt.setBigDecimal(16, BigDecimal.valueOf(1_000 + random.nextInt(100_000), 2));
+                pstmt.setBoolean(17, i % 50 != 0);
+                pstmt.addBatch();
+                if (i % 1_000 < 2) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void insertTransactions(Connection conn, Random random) throws SQLException {
+        long start = System.currentTimeMillis() - 365L * 24 * 60 * 60 * 1000;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO transactions (transactionID, accountID, type, amount, balanceAfter, date) VALUES (?, ?, ?, ?, ?, ?)")) {
+            int rows = 0;
+            for (int i = 0; i < ACCOUNTS; i++) {
+                long balance = 0;
+                for (int n = 0; n < TRANSACTIONS_PER_ACCOUNT; n++) {
+                    boolean deposit = n == 0 || random.nextInt(3) > 0;
+                    long amount = 100 + random.nextInt(500_000);
+                    if (!deposit && amount > balance) {
+                        amount = balance;
+                    }
+                    balance += deposit ? amount : -amount;
+                    pstmt.setString(1, TransactionIdGenerator.nextTransactionId());
+                    pstmt.setString(2, accountId(i));
+                    pstmt.setString(3, deposit ? "Deposit" : "Withdrawal");
+                    Money.bind(pstmt, 4, amount);
+                    Money.bind(pstmt, 5, balance);
+                    pstmt.setTimestamp(6, new Timestamp(start + (long) n * 24 * 60 * 60 * 1000 + i));
+                    pstmt.addBatch();
+                    if (++rows % 5_000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Opens "jdbc:bench:<url>" as "jdbc:<url>" and removes MySQL's BINARY operator from
+    // the SQL its connections prepare
+    static final class BinaryStrippingDriver implements Driver {
+        static final String PREFIX = "jdbc:bench:";
+        private static final Pattern BINARY = Pattern.compile("\\bBINARY\\s+(?=\\w)", Pattern.CASE_INSENSITIVE);
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            Connection conn = DriverManager.getConnection("jdbc:" + url.substring(PREFIX.length()), info);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                        args[0] = BINARY.matcher(sql).replaceAll("");
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(PREFIX);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package EDP;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the JMH benchmarks in this directory and writes the results as JSON, one file
+// per run, so runs from different releases can be diffed or loaded into a JMH viewer.
+// The GC profiler is always on: each benchmark's secondary metrics include
+// gc.alloc.rate.norm, bytes allocated per operation. The accounts phase goes in as a
+// forked JVM argument, so each result's jvmArgs shows it ran UNIFIED, not production's
+// LEGACY (see BenchmarkDatabase).
+//
+// There is no build file for the project yet. On the classpath this needs the EDP
+// classes plus jmh-core and h2 (MySQL mode), and jmh-generator-annprocess on the
+// annotation processor path at compile time, e.g. with JMH 1.37 and H2 2.2:
+//   javac -cp <EDP classes>:jmh-core.jar:h2.jar -processorpath jmh-generator-annprocess.jar:jmh-core.jar \
+//         -d bench-classes benchmarks/*.java
+//   java -cp bench-classes:<EDP classes>:jmh-core.jar:jopt-simple.jar:commons-math3.jar:h2.jar EDP.BenchmarkRunner
+public class BenchmarkRunner {
+    // Usage: BenchmarkRunner [include regex] [results dir]
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : "EDP\\..*Benchmark";
+        Path dir = Paths.get(args.length > 1 ? args[1] : System.getProperty("bank.bench.resultsDir", "benchmark-results"));
+        Files.createDirectories(dir);
+        Path results = dir.resolve("jmh-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Djava.awt.headless=true", "-Dbank.accounts.phase=" + BenchmarkDatabase.PHASE)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.toString())
+                .build();
+        new Runner(options).run();
+        System.out.println("Benchmark results written to " + results);
+    }
+}
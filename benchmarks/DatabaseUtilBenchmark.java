@@ -0,0 +1,106 @@
+package EDP;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// DatabaseUtil hot paths against the embedded database in BenchmarkDatabase. Each call
+// borrows from the real ConnectionPool and runs the production SQL, so a change to a
+// query or to the pool shows up here. Keys are picked at random per invocation so
+// no single row stays hot in H2's cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DatabaseUtilBenchmark {
+    private CustomerAccount depositAccount;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.seed();
+        depositAccount = DatabaseUtil.getCustomerAccount(BenchmarkDatabase.accountId(1));
+    }
+
+    private static int randomAccount() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ACCOUNTS);
+    }
+
+    @Benchmark
+    public List<BankUser> loadBankUsers() {
+        int i = ThreadLocalRandom.current().nextInt(BenchmarkDatabase.USERS);
+        return DatabaseUtil.loadBankUsers(BenchmarkDatabase.username(i), "Secret" + i);
+    }
+
+    @Benchmark
+    public CustomerAccount getCustomerAccountById() {
+        return DatabaseUtil.getCustomerAccount(BenchmarkDatabase.accountId(randomAccount()));
+    }
+
+    @Benchmark
+    public CustomerAccount getCustomerAccountByCustomerId() {
+        return DatabaseUtil.getCustomerAccount(BenchmarkDatabase.customerId(randomAccount()));
+    }
+
+    // The SQL fallback; nothing here builds the in-memory search index
+    @Benchmark
+    public List<CustomerAccount> searchCustomerAccounts() {
+        return DatabaseUtil.searchCustomerAccounts("Last" + ThreadLocalRandom.current().nextInt(997), 20);
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactions() {
+        return DatabaseUtil.getTransactions(BenchmarkDatabase.accountId(randomAccount()));
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsFirstPage() throws SQLException {
+        return DatabaseUtil.getTransactionsPage(BenchmarkDatabase.accountId(randomAccount()), null, null, 50);
+    }
+
+    // Journal append, queue, group commit and the caller's wait for it
+    @Benchmark
+    public void saveTransaction() {
+        Transaction t = new Transaction("Deposit", 100, 100);
+        DatabaseUtil.saveTransaction(t, BenchmarkDatabase.accountId(randomAccount())).join();
+    }
+
+    // Relative balance update, transaction insert, aggregates and checkpoints in one commit
+    @Benchmark
+    public Transaction deposit() {
+        return DatabaseUtil.postTransaction(depositAccount, "Deposit", 100);
+    }
+
+    @Benchmark
+    public int getTotalCustomers() {
+        return DatabaseUtil.getTotalCustomers();
+    }
+
+    @Benchmark
+    public long getTotalDeposits() {
+        return DatabaseUtil.getTotalDeposits();
+    }
+
+    @Benchmark
+    public long getTotalWithdrawals() {
+        return DatabaseUtil.getTotalWithdrawals();
+    }
+
+    @Benchmark
+    public int getTotalTransactions() {
+        return DatabaseUtil.getTotalTransactions();
+    }
+}
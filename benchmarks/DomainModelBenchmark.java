@@ -0,0 +1,135 @@
+package EDP;
+
+import java.sql.SQLException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Object construction on the paths that build accounts and transactions row by row
+// (loadCustomerAccounts, searchCustomerAccounts, history pages). BenchmarkRunner adds
+// JMH's GC profiler, so every result carries gc.alloc.rate.norm, the bytes allocated
+// per operation; that is the number to drive down here, more than the time.
+//
+// deposit and withdraw commit through DatabaseUtil.postTransaction, so those two run
+// against the embedded database and their allocation includes the JDBC round trip.
+// depositInMemory and withdrawInMemory measure only the part after the commit: the
+// Transaction that postTransaction builds and the account's applyPosted (balance plus
+// history append). The difference between the pairs is the database's share.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DomainModelBenchmark {
+    private Date birthDate;
+
+    // Only the benchmarks that take this state seed the embedded database
+    @State(Scope.Benchmark)
+    public static class Accounts {
+        CustomerAccount depositAccount;
+        CustomerAccount withdrawAccount;
+
+        @Setup(Level.Trial)
+        public void load() throws SQLException {
+            BenchmarkDatabase.seed();
+            depositAccount = DatabaseUtil.getCustomerAccount(BenchmarkDatabase.accountId(2));
+            withdrawAccount = DatabaseUtil.getCustomerAccount(BenchmarkDatabase.accountId(3));
+            // Enough to withdraw one centavo per call for the whole run
+            withdrawAccount.deposit(Money.ofPesos(100_000_000));
+        }
+
+        // deposit/withdraw append to the in-memory history; keep it from growing across iterations
+        @Setup(Level.Iteration)
+        public void clearHistory() {
+            depositAccount.transactionHistory.clear();
+            withdrawAccount.transactionHistory.clear();
+        }
+    }
+
+    // A plain account that never touches the database
+    @State(Scope.Benchmark)
+    public static class InMemory {
+        CustomerAccount account;
+
+        @Setup(Level.Trial)
+        public void create() {
+            account = new CustomerAccount("CU0000000002", "AC0000000002", "Maria", "Reyes", "Santos", new Date(),
+                                          "2 Mabini St", "San Roque", "Quezon City", "Metro Manila", "1100", "09181234567",
+                                          "maria@mail.com", "Female", "Savings Account", Money.ofPesos(100_000_000), true);
+        }
+
+        @Setup(Level.Iteration)
+        public void clearHistory() {
+            account.transactionHistory.clear();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Calendar birth = Calendar.getInstance();
+        birth.set(1990, Calendar.MARCH, 15);
+        birthDate = birth.getTime();
+    }
+
+    // Age calculation, history list and opening Transaction included
+    @Benchmark
+    public CustomerAccount newCustomerAccount() {
+        return new CustomerAccount("CU0000000001", "AC0000000001", "Juan", "Santos", "Dela Cruz", birthDate,
+                                   "1 Rizal St", "Poblacion", "Makati", "Metro Manila", "1200", "09171234567",
+                                   "juan@mail.com", "Male", "Savings Account", Money.ofPesos(1_500), true);
+    }
+
+    @Benchmark
+    public Transaction newTransaction() {
+        return new Transaction("Deposit", 10_000, 160_000);
+    }
+
+    // Row as read back from the database, keeping its stored ID
+    @Benchmark
+    public Transaction newStoredTransaction() {
+        return new Transaction("TRN0000000000001", "Withdrawal", 10_000, 150_000, birthDate);
+    }
+
+    @Benchmark
+    public String nextTransactionId() {
+        return TransactionIdGenerator.nextTransactionId();
+    }
+
+    @Benchmark
+    public long deposit(Accounts accounts) {
+        accounts.depositAccount.deposit(1);
+        return accounts.depositAccount.getBalance();
+    }
+
+    @Benchmark
+    public long withdraw(Accounts accounts) {
+        accounts.withdrawAccount.withdraw(1);
+        return accounts.withdrawAccount.getBalance();
+    }
+
+    @Benchmark
+    public long depositInMemory(InMemory state) {
+        CustomerAccount account = state.account;
+        account.applyPosted(new Transaction("Deposit", 1, account.getBalance() + 1));
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public long withdrawInMemory(InMemory state) {
+        CustomerAccount account = state.account;
+        account.applyPosted(new Transaction("Withdrawal", 1, account.getBalance() - 1));
+        return account.getBalance();
+    }
+}
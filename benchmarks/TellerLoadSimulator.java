@@ -0,0 +1,292 @@
+package EDP;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load simulation of tellers and managers working the real DatabaseUtil code at once.
+// Each simulated user is one thread running its role's weighted mix of operations
+// back to back (plus optional think time) against a small set of hot accounts, which
+// is where contention shows. Reports throughput and p50/p99/p999 latency per operation
+// after a warm-up, then checks each hot account's stored balance against its opening
+// balance plus every deposit and withdrawal that reported success; any gap is a lost update.
+//
+// Settings (-Dbank.load.*):
+//   tellers, managers        simulated users per role (8, 2)
+//   seconds, warmupSeconds   measured run and discarded warm-up (30, 5)
+//   hotAccounts              accounts all deposits/withdrawals/edits hit (20)
+//   thinkMs                  pause between one user's operations (0)
+//   tellerMix, managerMix    weights, e.g. "login=5,search=10,lookup=25,deposit=30,withdraw=30"
+//   embedded                 true: seeded in-memory H2 (BenchmarkDatabase); false: -Dbank.db.* MySQL
+//   users                    for a MySQL run, "user:password,..." used by login
+// Keep tellers + managers near bank.pool.maxSize, or the numbers measure pool waits.
+public class TellerLoadSimulator {
+    enum Op { LOGIN, SEARCH, LOOKUP, DEPOSIT, WITHDRAW, DASHBOARD, UPDATE }
+
+    private static final long AMOUNT = Money.ofPesos(1);
+    private static final long OPENING_FLOAT = Money.ofPesos(1_000_000);
+
+    private final int tellers = Integer.getInteger("bank.load.tellers", 8);
+    private final int managers = Integer.getInteger("bank.load.managers", 2);
+    private final int seconds = Integer.getInteger("bank.load.seconds", 30);
+    private final int warmupSeconds = Integer.getInteger("bank.load.warmupSeconds", 5);
+    private final int hotAccounts = Integer.getInteger("bank.load.hotAccounts", 20);
+    private final long thinkMillis = Long.getLong("bank.load.thinkMs", 0L);
+    private final Map<Op, Integer> tellerMix =
+        parseMix(System.getProperty("bank.load.tellerMix", "login=5,search=10,lookup=25,deposit=30,withdraw=30"));
+    // update is the ManagerDashboard profile edit; it leaves the balance alone
+    private final Map<Op, Integer> managerMix =
+        parseMix(System.getProperty("bank.load.managerMix", "login=5,search=20,lookup=20,dashboard=45,update=10"));
+
+    private final List<String> accountIds = new ArrayList<>();
+    // Loaded once, as on a teller's screen; postTransaction only uses the ID and type
+    private final Map<String, CustomerAccount> accounts = new ConcurrentHashMap<>();
+    private final List<String[]> users = new ArrayList<>();
+    private final Map<String, Long> openingBalances = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> committedDeltas = new ConcurrentHashMap<>();
+
+    private volatile long measureFrom;
+    private volatile long stopAt;
+
+    // Per-thread latencies in nanoseconds, merged once the run is over
+    private static final class Recorder {
+        final Map<Op, long[]> samples = new EnumMap<>(Op.class);
+        final Map<Op, Integer> counts = new EnumMap<>(Op.class);
+        final Map<Op, Integer> errors = new EnumMap<>(Op.class);
+
+        void record(Op op, long nanos) {
+            long[] values = samples.computeIfAbsent(op, ignored -> new long[1024]);
+            int n = counts.getOrDefault(op, 0);
+            if (n == values.length) {
+                values = Arrays.copyOf(values, n * 2);
+                samples.put(op, values);
+            }
+            values[n] = nanos;
+            counts.put(op, n + 1);
+        }
+
+        void error(Op op) {
+            errors.merge(op, 1, Integer::sum);
+        }
+    }
+
+    public void run() throws SQLException, InterruptedException {
+        prepare();
+        List<Recorder> recorders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long now = System.nanoTime();
+        measureFrom = now + warmupSeconds * 1_000_000_000L;
+        stopAt = measureFrom + seconds * 1_000_000_000L;
+        for (int i = 0; i < tellers + managers; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            Map<Op, Integer> mix = i < tellers ? tellerMix : managerMix;
+            Thread thread = new Thread(() -> work(mix, recorder), (i < tellers ? "teller-" : "manager-") + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        report(recorders);
+    }
+
+    private void prepare() throws SQLException {
+        if (Boolean.parseBoolean(System.getProperty("bank.load.embedded", "true"))) {
+            BenchmarkDatabase.seed();
+            for (int i = 0; i < BenchmarkDatabase.USERS; i++) {
+                users.add(new String[] { BenchmarkDatabase.username(i), "Secret" + i });
+            }
+        } else {
+            String configured = System.getProperty("bank.load.users", "");
+            for (String user : configured.split(",")) {
+                String[] pair = user.split(":", 2);
+                if (pair.length == 2) {
+                    users.add(pair);
+                }
+            }
+        }
+        if (users.isEmpty()) {
+            tellerMix.remove(Op.LOGIN);
+            managerMix.remove(Op.LOGIN);
+        }
+
+        for (CustomerAccount account : DatabaseUtil.loadCustomerAccounts()) {
+            if (account.is_active && accountIds.size() < hotAccounts) {
+                accountIds.add(account.accountID);
+            }
+        }
+        if (accountIds.isEmpty()) {
+            throw new SQLException("No active accounts to run against");
+        }
+        // A float so withdrawals are never refused for funds during the run
+        for (String id : accountIds) {
+            CustomerAccount account = DatabaseUtil.getCustomerAccount(id);
+            if (account.getBalance() < OPENING_FLOAT
+                    && DatabaseUtil.postTransaction(account, "Deposit", OPENING_FLOAT) == null) {
+                throw new SQLException("Could not fund account " + id);
+            }
+            accounts.put(id, account);
+            openingBalances.put(id, DatabaseUtil.getCustomerAccount(id).getBalance());
+            committedDeltas.put(id, new LongAdder());
+        }
+    }
+
+    private void work(Map<Op, Integer> mix, Recorder recorder) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (total == 0) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < stopAt) {
+            Op op = pick(mix, random.nextInt(total));
+            String accountId = accountIds.get(random.nextInt(accountIds.size()));
+            long start = System.nanoTime();
+            boolean ok = execute(op, accountId, random);
+            long end = System.nanoTime();
+            if (start >= measureFrom && end <= stopAt) {
+                recorder.record(op, end - start);
+                if (!ok) {
+                    recorder.error(op);
+                }
+            }
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(thinkMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean execute(Op op, String accountId, ThreadLocalRandom random) {
+        switch (op) {
+            case LOGIN: {
+                String[] user = users.get(random.nextInt(users.size()));
+                return !DatabaseUtil.loadBankUsers(user[0], user[1]).isEmpty();
+            }
+            case SEARCH:
+                return DatabaseUtil.searchCustomerAccounts(accountId.substring(0, accountId.length() - 2), 20) != null;
+            case LOOKUP:
+                return DatabaseUtil.getCustomerAccount(accountId) != null;
+            case DEPOSIT:
+            case WITHDRAW: {
+                long delta = op == Op.DEPOSIT ? AMOUNT : Money.negate(AMOUNT);
+                if (DatabaseUtil.postTransaction(accounts.get(accountId), op == Op.DEPOSIT ? "Deposit" : "Withdrawal", delta) == null) {
+                    return false;
+                }
+                committedDeltas.get(accountId).add(delta);
+                return true;
+            }
+            case DASHBOARD:
+                DatabaseUtil.getTotalCustomers();
+                DatabaseUtil.getTotalDeposits();
+                DatabaseUtil.getTotalWithdrawals();
+                DatabaseUtil.getTotalTransactions();
+                return true;
+            case UPDATE: {
+                CustomerAccount account = DatabaseUtil.getCustomerAccount(accountId);
+                if (account == null) {
+                    return false;
+                }
+                account.phone = String.format("09%09d", random.nextInt(1_000_000_000));
+                return DatabaseUtil.updateCustomerAccount(account);
+            }
+            default:
+                throw new IllegalStateException("Unknown operation " + op);
+        }
+    }
+
+    private void report(List<Recorder> recorders) {
+        System.out.printf("%d tellers, %d managers, %d hot accounts, %d s measured after %d s warm-up%n",
+                          tellers, managers, accountIds.size(), seconds, warmupSeconds);
+        System.out.printf("%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                          "operation", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long all = 0;
+        for (Op op : Op.values()) {
+            int n = 0;
+            int errors = 0;
+            for (Recorder r : recorders) {
+                n += r.counts.getOrDefault(op, 0);
+                errors += r.errors.getOrDefault(op, 0);
+            }
+            if (n == 0) {
+                continue;
+            }
+            long[] merged = new long[n];
+            int at = 0;
+            for (Recorder r : recorders) {
+                int count = r.counts.getOrDefault(op, 0);
+                if (count > 0) {
+                    System.arraycopy(r.samples.get(op), 0, merged, at, count);
+                    at += count;
+                }
+            }
+            Arrays.sort(merged);
+            all += n;
+            System.out.printf("%-10s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+                              op.name().toLowerCase(), n, errors, (double) n / seconds,
+                              percentile(merged, 0.50), percentile(merged, 0.99), percentile(merged, 0.999),
+                              merged[n - 1] / 1e6);
+        }
+        System.out.printf("total      %10d %8s %10.1f%n", all, "", (double) all / seconds);
+
+        // Deltas cover the warm-up too; the opening balance was read before any thread started
+        long lostCentavos = 0;
+        int accountsAffected = 0;
+        for (String id : accountIds) {
+            CustomerAccount account = DatabaseUtil.getCustomerAccount(id);
+            long expected = openingBalances.get(id) + committedDeltas.get(id).sum();
+            long gap = account == null ? expected : Math.abs(account.getBalance() - expected);
+            if (gap != 0) {
+                accountsAffected++;
+                lostCentavos += gap;
+                System.out.printf("  %s stored %s expected %s%n", id,
+                                  account == null ? "-" : Money.format(account.getBalance()), Money.format(expected));
+            }
+        }
+        // Each operation moves AMOUNT, so the gap is at least this many lost operations
+        System.out.printf("Lost updates: %d on %d of %d accounts (%s unaccounted for)%n",
+                          lostCentavos / AMOUNT, accountsAffected, accountIds.size(), Money.format(lostCentavos));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static Op pick(Map<Op, Integer> mix, int roll) {
+        for (Map.Entry<Op, Integer> e : mix.entrySet()) {
+            roll -= e.getValue();
+            if (roll < 0) {
+                return e.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    // "deposit=30,withdraw=30" -> weights; zero weights are dropped
+    private static Map<Op, Integer> parseMix(String spec) {
+        Map<Op, Integer> mix = new EnumMap<>(Op.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length == 2 && Integer.parseInt(kv[1].trim()) > 0) {
+                mix.put(Op.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+            }
+        }
+        return mix;
+    }
+
+    // Usage: TellerLoadSimulator   (see the settings above)
+    public static void main(String[] args) throws Exception {
+        new TellerLoadSimulator().run();
+        System.exit(0);
+    }
+}